@@ -0,0 +1,115 @@
+package com.example.bankcards.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочное сравнение платформенных и виртуальных потоков на эндпоинтах баланса и перевода,
+ * а также блокирующих эндпоинтов /api/cards с реактивными /api/reactive/cards (R2DBC).
+ * Бенчмарк работает против запущенного приложения: для сравнения потоков его запускают дважды, с
+ * {@code spring.threads.virtual.enabled=false} и {@code true}, и сравнивают пропускную способность
+ * при одном и том же числе клиентских потоков (по умолчанию 200, меняется через {@code -t}).
+ * Замедление базы данных можно смоделировать, уменьшив {@code spring.datasource.hikari.maximum-pool-size}.
+ * Для запросов в секунду на ядро приложение ограничивают по CPU (например, {@code docker run --cpus=2}
+ * или {@code -XX:ActiveProcessorCount=2}) и делят результат на число ядер; база данных —
+ * локальный PostgreSQL из docker-compose.
+ * <p>
+ * Параметры: -Djmh.http.url (по умолчанию http://localhost:8080), -Djmh.http.user,
+ * -Djmh.http.password (тестовый пользователь из TestUserInitializer), -Djmh.http.from-card
+ * и -Djmh.http.to-card (две карты этого пользователя).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(200)
+@State(Scope.Benchmark)
+public class ThreadModelLoadBenchmark {
+    private HttpClient client;
+    private String baseUrl;
+    private String authorization;
+    private long fromCard;
+    private long toCard;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        baseUrl = System.getProperty("jmh.http.url", "http://localhost:8080");
+        fromCard = Long.getLong("jmh.http.from-card", 1L);
+        toCard = Long.getLong("jmh.http.to-card", 2L);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String credentials = new ObjectMapper().createObjectNode()
+                .put("username", System.getProperty("jmh.http.user", "testuser"))
+                .put("password", System.getProperty("jmh.http.password", "password"))
+                .toString();
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+        authorization = "Bearer " + new ObjectMapper().readTree(login.body()).get("accessToken").asText();
+    }
+
+    @Benchmark
+    public int balance() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/cards/" + fromCard + "/balance")).GET());
+    }
+
+    @Benchmark
+    public int transfer() throws IOException, InterruptedException {
+        // Направление выбирается случайно, чтобы балансы карт не расходовались в одну сторону
+        boolean forward = ThreadLocalRandom.current().nextBoolean();
+        String query = "?fromCardId=" + (forward ? fromCard : toCard) + "&toCardId=" + (forward ? toCard : fromCard)
+                + "&amount=0.01";
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/transfers" + query))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    @Benchmark
+    public int reactiveBalance() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/reactive/cards/" + fromCard + "/balance")).GET());
+    }
+
+    @Benchmark
+    public int listCards() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/cards?limit=20")).GET());
+    }
+
+    @Benchmark
+    public int reactiveListCards() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/reactive/cards?limit=20")).GET());
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request.header("Authorization", authorization).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException("Request failed: " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
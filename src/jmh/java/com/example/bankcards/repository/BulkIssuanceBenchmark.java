@@ -0,0 +1,136 @@
+package com.example.bankcards.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск 100 000 карт одной транзакцией в PostgreSQL так, как его выполняет Hibernate:
+ * с IDENTITY каждый INSERT отдельным запросом (id возвращается из RETURNING),
+ * с последовательностью pooled-lo один nextval на 50 карт и пакетные INSERT по 50 строк
+ * (hibernate.jdbc.batch_size). Таблица bench_cards создается во временной схеме.
+ * <p>
+ * Подключение: -Djmh.jdbc.url, -Djmh.jdbc.user, -Djmh.jdbc.password
+ * (по умолчанию база из docker-compose).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkIssuanceBenchmark {
+    private static final int CARDS = 100_000;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int BATCH_SIZE = 50;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jmh.jdbc.url", "jdbc:postgresql://localhost:5433/card_management"),
+                System.getProperty("jmh.jdbc.user", "admin"),
+                System.getProperty("jmh.jdbc.password", "admin"));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE bench_identity_cards (id BIGINT GENERATED BY DEFAULT AS IDENTITY "
+                    + "PRIMARY KEY, card_number VARCHAR(255) NOT NULL, owner_id BIGINT NOT NULL, "
+                    + "expiry_date DATE NOT NULL, status VARCHAR(20) NOT NULL, balance DECIMAL(19,2) NOT NULL)");
+            statement.execute("CREATE TEMP TABLE bench_sequence_cards (id BIGINT PRIMARY KEY, "
+                    + "card_number VARCHAR(255) NOT NULL, owner_id BIGINT NOT NULL, "
+                    + "expiry_date DATE NOT NULL, status VARCHAR(20) NOT NULL, balance DECIMAL(19,2) NOT NULL)");
+            statement.execute("CREATE TEMP SEQUENCE bench_cards_seq INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.commit();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE bench_identity_cards, bench_sequence_cards");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identityInsertPerRow() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_identity_cards (card_number, owner_id, expiry_date, status, balance) "
+                        + "VALUES (?, ?, ?, 'ACTIVE', ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < CARDS; i++) {
+                bindCard(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooledLoSequenceBatched() throws SQLException {
+        long nextId = 0;
+        long blockEnd = 0;
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('bench_cards_seq')");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO bench_sequence_cards (id, card_number, owner_id, expiry_date, status, balance) "
+                             + "VALUES (?, ?, ?, ?, 'ACTIVE', ?)")) {
+            for (int i = 0; i < CARDS; i++) {
+                if (nextId == blockEnd) {
+                    // pooled-lo: значение последовательности — начало блока из ALLOCATION_SIZE id
+                    try (ResultSet rs = nextval.executeQuery()) {
+                        rs.next();
+                        nextId = rs.getLong(1);
+                        blockEnd = nextId + ALLOCATION_SIZE;
+                    }
+                }
+                insert.setLong(1, nextId++);
+                bindCard(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return nextId;
+    }
+
+    private static void bindCard(PreparedStatement insert, int firstIndex, int i) throws SQLException {
+        insert.setString(firstIndex, "v2:bench-card-" + i);
+        insert.setLong(firstIndex + 1, 1L);
+        insert.setDate(firstIndex + 2, Date.valueOf(LocalDate.of(2030, 1, 1)));
+        insert.setBigDecimal(firstIndex + 3, BigDecimal.ZERO);
+    }
+}
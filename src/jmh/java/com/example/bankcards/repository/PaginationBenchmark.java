@@ -0,0 +1,107 @@
+package com.example.bankcards.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка страницы из 100 карт одного владельца при OFFSET-пагинации (страница + count(*))
+ * и при выборке по курсору (id > :lastId) на 1M строк в PostgreSQL.
+ * Таблица bench_cards повторяет индекс (owner_id, id) из cards и создается во временной схеме.
+ * <p>
+ * Подключение: -Djmh.jdbc.url, -Djmh.jdbc.user, -Djmh.jdbc.password
+ * (по умолчанию база из docker-compose).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginationBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"0", "1000", "9000"})
+    private int pageNumber;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement countRows;
+    private PreparedStatement keysetPage;
+    private long lastIdBeforePage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jmh.jdbc.url", "jdbc:postgresql://localhost:5433/card_management"),
+                System.getProperty("jmh.jdbc.user", "admin"),
+                System.getProperty("jmh.jdbc.password", "admin"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE bench_cards (id BIGINT PRIMARY KEY, owner_id BIGINT NOT NULL, "
+                    + "last4 VARCHAR(4), balance DECIMAL(19,2) NOT NULL)");
+            statement.execute("INSERT INTO bench_cards SELECT g, 1, lpad((g % 10000)::text, 4, '0'), 100 "
+                    + "FROM generate_series(1, " + ROWS + ") g");
+            statement.execute("CREATE INDEX bench_cards_owner_id_id ON bench_cards (owner_id, id)");
+            statement.execute("ANALYZE bench_cards");
+        }
+        offsetPage = connection.prepareStatement(
+                "SELECT id, last4, balance FROM bench_cards WHERE owner_id = 1 ORDER BY id LIMIT ? OFFSET ?");
+        countRows = connection.prepareStatement("SELECT count(*) FROM bench_cards WHERE owner_id = 1");
+        keysetPage = connection.prepareStatement(
+                "SELECT id, last4, balance FROM bench_cards WHERE owner_id = 1 AND id > ? ORDER BY id LIMIT ?");
+        // id последней строки предыдущей страницы, как в курсоре клиента
+        lastIdBeforePage = (long) pageNumber * PAGE_SIZE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long offsetPageWithCount() throws SQLException {
+        offsetPage.setInt(1, PAGE_SIZE);
+        offsetPage.setInt(2, pageNumber * PAGE_SIZE);
+        long sum = read(offsetPage);
+        try (ResultSet rs = countRows.executeQuery()) {
+            rs.next();
+            return sum + rs.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public long keysetPage() throws SQLException {
+        keysetPage.setLong(1, lastIdBeforePage);
+        keysetPage.setInt(2, PAGE_SIZE + 1);
+        return read(keysetPage);
+    }
+
+    private static long read(PreparedStatement statement) throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1);
+            }
+        }
+        return sum;
+    }
+}
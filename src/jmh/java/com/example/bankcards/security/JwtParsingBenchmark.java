@@ -0,0 +1,80 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.repository.RoleRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Сравнение стоимости разбора JWT в фильтре: две полные проверки на запрос (как раньше),
+ * одна проверка заранее собранным парсером и попадание в кэш проверенных токенов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtParsingBenchmark {
+    private static final String SECRET =
+            "c2VjcmV0LWtleS1mb3ItYmVuY2htYXJrLW9ubHktc2VjcmV0LWtleS1mb3ItYmVuY2htYXJrLW9ubHk=";
+
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedProvider = provider(0);
+        cachedProvider = provider(10_000);
+        UserPrincipal principal = new UserPrincipal(1L, "user", "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = cachedProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public String validateThenGetUsername() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public Claims parseOnce() {
+        return uncachedProvider.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims parseOnceCached() {
+        return cachedProvider.parseToken(token);
+    }
+
+    private static JwtTokenProvider provider(long cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider(new RoleRegistry(mock(RoleRepository.class)),
+                mock(TokenRevocationList.class));
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", cacheSize);
+        ReflectionTestUtils.setField(provider, "verifiedCacheTtl", Duration.ofMinutes(5));
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.IdempotentResponse;
+import com.example.bankcards.entity.IdempotencyKey;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.service.impl.IdempotencyServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Стоимость повторного запроса с тем же Idempotency-Key: ответ из кэша в памяти
+ * и ответ из таблицы idempotency_keys (регистрация ключа и чтение строки).
+ * После прогона проверяется, что повтор из кэша не обращался к репозиторию.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyBenchmark {
+    private static final String USERNAME = "user";
+    private static final String KEY = "key-1";
+    private static final String FINGERPRINT = "1:2:100";
+    private static final String SCOPED_KEY = USERNAME.length() + ":" + USERNAME + ":" + KEY;
+
+    private IdempotencyKeyRepository cachedRepository;
+    private IdempotencyServiceImpl cachedService;
+    private IdempotencyServiceImpl storedService;
+    private Cache<?, ?> storedServiceCache;
+
+    @Setup
+    public void setUp() {
+        cachedRepository = mock(IdempotencyKeyRepository.class);
+        when(cachedRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        when(cachedRepository.complete(any(), any(), any(), any())).thenReturn(1);
+        cachedService = service(cachedRepository);
+        cachedService.execute(USERNAME, KEY, FINGERPRINT, () -> 200);
+        clearInvocations(cachedRepository);
+
+        IdempotencyKeyRepository storedRepository = mock(IdempotencyKeyRepository.class);
+        when(storedRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        when(storedRepository.complete(any(), any(), any(), any())).thenReturn(1);
+        storedService = service(storedRepository);
+        storedService.execute(USERNAME, KEY, FINGERPRINT, () -> 200);
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setKey(SCOPED_KEY);
+        stored.setStatus(IdempotencyKey.Status.COMPLETED);
+        stored.setResponseStatus(200);
+        when(storedRepository.claim(any(), any(), any(), any(), any())).thenReturn(0);
+        when(storedRepository.findById(SCOPED_KEY)).thenReturn(Optional.of(stored));
+        storedServiceCache = (Cache<?, ?>) ReflectionTestUtils.getField(storedService, "completedResponses");
+    }
+
+    @TearDown
+    public void checkCacheHitsSkipRepository() {
+        verifyNoMoreInteractions(cachedRepository);
+    }
+
+    @Benchmark
+    public IdempotentResponse duplicateFromCache() {
+        return cachedService.execute(USERNAME, KEY, FINGERPRINT, () -> 500);
+    }
+
+    @Benchmark
+    public IdempotentResponse duplicateFromDatabase() {
+        storedServiceCache.invalidateAll();
+        return storedService.execute(USERNAME, KEY, FINGERPRINT, () -> 500);
+    }
+
+    private static IdempotencyServiceImpl service(IdempotencyKeyRepository repository) {
+        return new IdempotencyServiceImpl(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new SimpleMeterRegistry(), Duration.ofHours(24), Duration.ofMinutes(1), Duration.ofMinutes(10), 1000);
+    }
+}
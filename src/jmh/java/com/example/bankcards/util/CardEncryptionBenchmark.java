@@ -0,0 +1,78 @@
+package com.example.bankcards.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность шифрования номеров карт: прежний вариант с Cipher.getInstance
+ * и новым ключом на каждый вызов против ThreadLocal-шифров с AES-GCM.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CardEncryptionBenchmark {
+    private static final String CARD_NUMBER = "1234567890123456";
+    private static final String LEGACY_KEY = "MySecretKey12345";
+
+    private String legacyEncrypted;
+    private String gcmEncrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        legacyEncrypted = legacyEncrypt(CARD_NUMBER);
+        gcmEncrypted = CardEncryptionUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String legacyEncryptPerCall() throws Exception {
+        return legacyEncrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String legacyDecryptPerCall() throws Exception {
+        SecretKeySpec key = new SecretKeySpec(LEGACY_KEY.getBytes(), "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(legacyEncrypted)));
+    }
+
+    @Benchmark
+    public String gcmEncrypt() {
+        return CardEncryptionUtil.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String gcmDecrypt() {
+        return CardEncryptionUtil.decrypt(gcmEncrypted);
+    }
+
+    @Benchmark
+    public String legacyDecryptReusedCipher() {
+        return CardEncryptionUtil.decrypt(legacyEncrypted);
+    }
+
+    private static String legacyEncrypt(String value) throws Exception {
+        SecretKeySpec key = new SecretKeySpec(LEGACY_KEY.getBytes(), "AES");
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        return Base64.getEncoder().encodeToString(cipher.doFinal(value.getBytes()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bankcards.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маскирование номера карты при маппинге в DTO: расшифровка в String с substring
+ * и конкатенацией против расшифровки в буфер потока. Аллокации на карту
+ * смотреть с профилировщиком: {@code -Djmh.args="PanMaskingBenchmark -prof gc"},
+ * метрика gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PanMaskingBenchmark {
+    private static final String CARD_NUMBER = "1234567890123456";
+    private static final SecretKeySpec KEY =
+            new SecretKeySpec("MySecretKey12345".getBytes(StandardCharsets.US_ASCII), "AES");
+
+    private String encrypted;
+    private Cipher cipher;
+
+    @Setup
+    public void setUp() throws Exception {
+        encrypted = CardEncryptionUtil.encrypt(CARD_NUMBER);
+        cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    }
+
+    /**
+     * Прежний путь: Base64 в новый массив, doFinal в новый массив, String с номером, substring и конкатенация.
+     */
+    @Benchmark
+    public String decryptToStringThenMask() throws Exception {
+        byte[] decoded = Base64.getDecoder().decode(encrypted.substring(3));
+        cipher.init(Cipher.DECRYPT_MODE, KEY, new GCMParameterSpec(128, decoded, 0, 12));
+        String number = new String(cipher.doFinal(decoded, 12, decoded.length - 12), StandardCharsets.US_ASCII);
+        return CardMaskUtil.mask(number);
+    }
+
+    @Benchmark
+    public String decryptToBufferThenMask() {
+        try (PanBuffer pan = CardEncryptionUtil.decryptToBuffer(encrypted)) {
+            return pan.masked();
+        }
+    }
+
+    /**
+     * Карта с заполненным last4: расшифровка не нужна.
+     */
+    @Benchmark
+    public String maskFromLast4() {
+        return CardMapper.maskedNumber("3456", encrypted);
+    }
+}
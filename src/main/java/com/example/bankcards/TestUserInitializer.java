@@ -2,8 +2,8 @@ package com.example.bankcards;
 
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
-import com.example.bankcards.repository.RoleRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.RoleService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,12 +13,12 @@ import java.util.Collections;
 @Component
 public class TestUserInitializer implements CommandLineRunner {
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleService roleService;
     private final PasswordEncoder passwordEncoder;
 
-    public TestUserInitializer(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public TestUserInitializer(UserRepository userRepository, RoleService roleService, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleService = roleService;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -26,11 +26,11 @@ public class TestUserInitializer implements CommandLineRunner {
     public void run(String... args) {
         // Создание тестового пользователя
         if (userRepository.findByUsername("testuser").isEmpty()) {
-            Role userRole = roleRepository.findByName(Role.RoleName.USER)
+            Role userRole = roleService.findByName(Role.RoleName.USER)
                     .orElseGet(() -> {
                         Role newRole = new Role();
                         newRole.setName(Role.RoleName.USER);
-                        return roleRepository.save(newRole);
+                        return roleService.createRole(newRole);
                     });
             User user = new User();
             user.setUsername("testuser");
@@ -42,11 +42,11 @@ public class TestUserInitializer implements CommandLineRunner {
         }
         // Создание тестового администратора
         if (userRepository.findByUsername("admin").isEmpty()) {
-            Role adminRole = roleRepository.findByName(Role.RoleName.ADMIN)
+            Role adminRole = roleService.findByName(Role.RoleName.ADMIN)
                     .orElseGet(() -> {
                         Role newRole = new Role();
                         newRole.setName(Role.RoleName.ADMIN);
-                        return roleRepository.save(newRole);
+                        return roleService.createRole(newRole);
                     });
             User admin = new User();
             admin.setUsername("admin");
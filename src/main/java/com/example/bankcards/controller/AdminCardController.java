@@ -0,0 +1,136 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.BulkIssuanceStatus;
+import com.example.bankcards.service.CardExportService;
+import com.example.bankcards.service.CardIssuanceService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * REST контроллер административных операций с картами.
+ * Доступ только для администраторов.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Tag(name = "Администрирование карт", description = "Массовые операции с картами (только для админов)")
+@RestController
+@RequestMapping("/api/admin/cards")
+public class AdminCardController {
+    /** Тип содержимого NDJSON: один JSON объект в строке */
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    /** Тип содержимого CSV */
+    static final String TEXT_CSV = "text/csv";
+
+    private final CardExportService cardExportService;
+    private final CardIssuanceService cardIssuanceService;
+
+    /** Предельное время выгрузки; остальные асинхронные запросы используют общий таймаут */
+    @Value("${app.card.export.timeout:PT2H}")
+    private Duration exportTimeout = Duration.ofHours(2);
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     * 
+     * @param cardExportService сервис выгрузки карт
+     * @param cardIssuanceService сервис массового выпуска карт
+     */
+    @Autowired
+    public AdminCardController(CardExportService cardExportService, CardIssuanceService cardIssuanceService) {
+        this.cardExportService = cardExportService;
+        this.cardIssuanceService = cardIssuanceService;
+    }
+
+    /**
+     * Выгружает все карты в формате NDJSON.
+     * Ответ пишется асинхронно по мере чтения карт из базы данных, без загрузки всей выборки в память,
+     * с таймаутом {@code app.card.export.timeout}.
+     * 
+     * @param response HTTP ответ, в который пишется выгрузка
+     * @return задача записи потока строк NDJSON с данными карт в порядке ID
+     */
+    @Operation(summary = "Выгрузить все карты", description = "Потоково возвращает все карты в формате NDJSON (один CardDto в строке) в порядке ID.")
+    @ApiResponse(responseCode = "200", description = "Выгрузка карт")
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    public WebAsyncTask<Void> exportCards(HttpServletResponse response) {
+        response.setContentType(APPLICATION_NDJSON);
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            cardExportService.exportNdjson(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    /**
+     * Запускает массовый выпуск карт одному владельцу из выгрузки CSV или NDJSON.
+     * Выгрузка принимается целиком, карты выпускаются в фоне; ход выпуска
+     * доступен по адресу из заголовка Location.
+     * 
+     * @param ownerId ID владельца карт
+     * @param contentType тип содержимого: text/csv или application/x-ndjson
+     * @param body выгрузка карт
+     * @return состояние созданного задания со статусом 202
+     * @throws IOException если выгрузку не удалось прочитать
+     */
+    @Operation(summary = "Массовый выпуск карт", description = "Принимает CSV (cardNumber,expiryDate,initialBalance) или NDJSON (CreateCardRequest в строке) и выпускает карты в фоне.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Задание выпуска создано"),
+        @ApiResponse(responseCode = "400", description = "Владелец не найден"),
+        @ApiResponse(responseCode = "429", description = "Заняты все места для выполняемых и ожидающих заданий")
+    })
+    @PostMapping(value = "/bulk", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    public ResponseEntity<BulkIssuanceStatus> issueCards(
+            @Parameter(description = "ID владельца карт", required = true) @RequestParam Long ownerId,
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @Parameter(hidden = true) InputStream body) throws IOException {
+        CardIssuanceService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? CardIssuanceService.Format.CSV : CardIssuanceService.Format.NDJSON;
+        BulkIssuanceStatus status = cardIssuanceService.startIssuance(body, format, ownerId);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{jobId}").buildAndExpand(status.getJobId()).toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    /**
+     * Возвращает состояние задания массового выпуска карт.
+     * 
+     * @param jobId идентификатор задания
+     * @return состояние задания или 404, если задание неизвестно
+     */
+    @Operation(summary = "Состояние массового выпуска", description = "Возвращает число прочитанных строк, выпущенных карт и ошибки задания.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Состояние задания"),
+        @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    })
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<BulkIssuanceStatus> getIssuanceStatus(
+            @Parameter(description = "Идентификатор задания", required = true) @PathVariable String jobId) {
+        return cardIssuanceService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
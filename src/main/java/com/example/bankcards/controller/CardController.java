@@ -2,17 +2,21 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.service.CardService;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardTransactionDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.security.Principal;
 import java.util.Optional;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -63,6 +67,7 @@ public class CardController {
 
     /**
      * Получает список карт текущего пользователя с пагинацией.
+     * Карты фильтруются по id владельца из токена и сортируются по id.
      * 
      * @param page номер страницы (по умолчанию 0)
      * @param size размер страницы (по умолчанию 10)
@@ -75,12 +80,36 @@ public class CardController {
     public Page<CardDto> listCards(
             @Parameter(description = "Номер страницы", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Размер страницы", example = "10") @RequestParam(defaultValue = "10") int size,
-            @Parameter(hidden = true) Principal principal) {
-        // Здесь предполагается, что principal.getName() = username
-        User user = new User();
-        user.setUsername(principal.getName());
-        Pageable pageable = PageRequest.of(page, size);
-        return cardService.listCards(user, pageable);
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+        return cardService.listCards(principal.getId(), pageable);
+    }
+
+    /**
+     * Получает страницу карт текущего пользователя по курсору.
+     * В отличие от постраничного варианта не выполняет OFFSET и count(*),
+     * поэтому время ответа не зависит от номера страницы.
+     * 
+     * @param after курсор из nextCursor предыдущей страницы; не задан для первой страницы
+     * @param limit размер страницы (от 1 до 1000)
+     * @param count подсчитать общее число карт
+     * @param principal текущий аутентифицированный пользователь
+     * @return страница карт с курсором следующей страницы
+     * @throws IllegalArgumentException если курсор или размер страницы некорректны
+     */
+    @Operation(summary = "Получить карты пользователя по курсору",
+            description = "Возвращает карты текущего пользователя после курсора after в порядке возрастания ID.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Страница карт получена"),
+        @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы")
+    })
+    @GetMapping(params = "limit")
+    public CursorPage<CardDto> listCardsByCursor(
+            @Parameter(description = "Курсор следующей страницы") @RequestParam(required = false) String after,
+            @Parameter(description = "Размер страницы", example = "100") @RequestParam int limit,
+            @Parameter(description = "Подсчитать общее число карт") @RequestParam(defaultValue = "false") boolean count,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.listCards(principal.getId(), after, limit, count);
     }
 
     /**
@@ -99,10 +128,8 @@ public class CardController {
     @PostMapping
     public CardDto createCard(
             @Parameter(description = "Данные для создания карты", required = true) @RequestBody CreateCardRequest request,
-            @Parameter(hidden = true) Principal principal) {
-        User user = new User();
-        user.setUsername(principal.getName());
-        return cardService.createCard(request, user);
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.createCard(request, currentUser(principal));
     }
 
     /**
@@ -187,9 +214,42 @@ public class CardController {
     @GetMapping("/{id}/balance")
     public BigDecimal getBalance(
             @Parameter(description = "ID карты", required = true) @PathVariable Long id,
-            @Parameter(hidden = true) Principal principal) {
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.getBalance(id, currentUser(principal));
+    }
+
+    /**
+     * Получает журнал движений по карте текущего пользователя постранично по курсору.
+     * 
+     * @param id идентификатор карты
+     * @param after курсор из nextCursor предыдущей страницы; не задан для первой страницы
+     * @param limit размер страницы (от 1 до 1000)
+     * @param principal текущий аутентифицированный пользователь
+     * @return страница записей журнала от новых к старым
+     * @throws IllegalArgumentException если пользователь не владеет картой или курсор некорректен
+     */
+    @Operation(summary = "Получить движения по карте",
+            description = "Возвращает записи журнала движений по карте от новых к старым, постранично по курсору.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Страница журнала получена"),
+        @ApiResponse(responseCode = "400", description = "Карта не принадлежит пользователю или курсор некорректен")
+    })
+    @GetMapping("/{id}/transactions")
+    public CursorPage<CardTransactionDto> listTransactions(
+            @Parameter(description = "ID карты", required = true) @PathVariable Long id,
+            @Parameter(description = "Курсор следующей страницы") @RequestParam(required = false) String after,
+            @Parameter(description = "Размер страницы", example = "50") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.listTransactions(id, currentUser(principal), after, limit);
+    }
+
+    /**
+     * Ссылка на текущего пользователя с id и именем из токена, без загрузки из базы данных.
+     */
+    private User currentUser(UserPrincipal principal) {
         User user = new User();
-        user.setUsername(principal.getName());
-        return cardService.getBalance(id, user);
+        user.setId(principal.getId());
+        user.setUsername(principal.getUsername());
+        return user;
     }
 } 
\ No newline at end of file
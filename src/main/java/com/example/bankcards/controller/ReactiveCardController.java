@@ -0,0 +1,89 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.security.UserPrincipal;
+import com.example.bankcards.service.ReactiveCardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import static com.example.bankcards.controller.AdminCardController.APPLICATION_NDJSON;
+
+/**
+ * REST контроллер неблокирующего чтения карт (R2DBC).
+ * Запрос не занимает поток сервлета, пока ждет базу данных: обработка завершается
+ * асинхронно, когда R2DBC вернет результат. Аутентификация по JWT та же, что и у /api/cards.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Tag(name = "Карты (реактивный API)", description = "Неблокирующее чтение баланса и списка карт")
+@RestController
+@RequestMapping("/api/reactive/cards")
+public class ReactiveCardController {
+    private final ReactiveCardService cardService;
+
+    /**
+     * Конструктор с внедрением зависимости ReactiveCardService.
+     * 
+     * @param cardService реактивный сервис чтения карт
+     */
+    @Autowired
+    public ReactiveCardController(ReactiveCardService cardService) {
+        this.cardService = cardService;
+    }
+
+    /**
+     * Получает баланс карты текущего пользователя.
+     * 
+     * @param id идентификатор карты
+     * @param principal текущий аутентифицированный пользователь
+     * @return баланс карты
+     */
+    @Operation(summary = "Получить баланс карты", description = "Неблокирующий аналог GET /api/cards/{id}/balance.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Баланс получен"),
+        @ApiResponse(responseCode = "400", description = "Карта не принадлежит пользователю")
+    })
+    @GetMapping("/{id}/balance")
+    public Mono<BigDecimal> getBalance(
+            @Parameter(description = "ID карты", required = true) @PathVariable Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.getBalance(id, principal.getId());
+    }
+
+    /**
+     * Потоково возвращает карты текущего пользователя в формате NDJSON.
+     * Следующие строки читаются из базы данных только по мере отправки клиенту.
+     * 
+     * @param after курсор (id последней полученной карты)
+     * @param limit максимальное число карт; без параметра возвращаются все карты
+     * @param principal текущий аутентифицированный пользователь
+     * @return поток карт в порядке ID
+     */
+    @Operation(summary = "Получить карты пользователя", description = "Потоково возвращает карты текущего пользователя в формате NDJSON в порядке ID.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Поток карт"),
+        @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы")
+    })
+    @GetMapping(produces = APPLICATION_NDJSON)
+    public Flux<CardDto> listCards(
+            @Parameter(description = "Курсор: nextCursor предыдущей страницы") @RequestParam(required = false) String after,
+            @Parameter(description = "Максимальное число карт (1-1000)") @RequestParam(required = false) Integer limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.listCards(principal.getId(), after, limit);
+    }
+}
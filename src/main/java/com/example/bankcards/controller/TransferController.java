@@ -1,15 +1,37 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.IdempotentResponse;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.dto.TransferResult;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
@@ -26,15 +48,35 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 @RequestMapping("/api/transfers")
 public class TransferController {
     private final CardService cardService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    /** Число переводов пакетного запроса, выполняемых в одной транзакции */
+    @Value("${app.transfer.batch.chunk-size:500}")
+    private int batchChunkSize = 500;
 
     /**
-     * Конструктор с внедрением зависимости CardService.
+     * Конструктор с внедрением зависимостей.
      * 
      * @param cardService сервис для работы с картами
+     * @param idempotencyService сервис идемпотентного выполнения запросов
+     * @param objectMapper JSON-маппер для потокового чтения пакетных запросов
      */
     @Autowired
-    public TransferController(CardService cardService) {
+    public TransferController(CardService cardService, IdempotencyService idempotencyService, ObjectMapper objectMapper) {
         this.cardService = cardService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Проверяет настройки пакетных переводов при старте.
+     */
+    @PostConstruct
+    public void init() {
+        if (batchChunkSize <= 0) {
+            throw new IllegalArgumentException("app.transfer.batch.chunk-size must be positive");
+        }
     }
 
     /**
@@ -43,23 +85,119 @@ public class TransferController {
      * @param fromCardId идентификатор карты-отправителя
      * @param toCardId идентификатор карты-получателя
      * @param amount сумма перевода
+     * @param idempotencyKey ключ идемпотентности; повтор с тем же ключом получает сохраненный ответ
      * @param principal текущий аутентифицированный пользователь
+     * @return пустой ответ; для повторного запроса с заголовком Idempotent-Replayed: true
      * @throws IllegalArgumentException если пользователь не владеет обеими картами
      * @throws InsufficientFundsException если недостаточно средств на карте-отправителе
      */
     @Operation(summary = "Перевести средства между картами", description = "Выполняет перевод средств между картами одного пользователя.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Перевод выполнен успешно"),
-        @ApiResponse(responseCode = "400", description = "Ошибка перевода: недостаточно средств или пользователь не владеет картами")
+        @ApiResponse(responseCode = "400", description = "Ошибка перевода: недостаточно средств или пользователь не владеет картами"),
+        @ApiResponse(responseCode = "409", description = "Запрос с этим Idempotency-Key еще выполняется"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key уже использован с другими параметрами перевода")
     })
     @PostMapping
-    public void transfer(
+    public ResponseEntity<Void> transfer(
             @Parameter(description = "ID карты-отправителя", required = true) @RequestParam Long fromCardId,
             @Parameter(description = "ID карты-получателя", required = true) @RequestParam Long toCardId,
             @Parameter(description = "Сумма перевода", required = true) @RequestParam BigDecimal amount,
-            @Parameter(hidden = true) Principal principal) {
+            @Parameter(description = "Ключ идемпотентности запроса") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) {
+        User user = currentUser(principal);
+        if (idempotencyKey == null) {
+            cardService.transferBetweenCards(fromCardId, toCardId, amount, user);
+            return ResponseEntity.ok().build();
+        }
+        // Сумма приводится к каноническому виду: 100 и 100.00 - один и тот же перевод
+        String fingerprint = fromCardId + ":" + toCardId + ":" + amount.stripTrailingZeros().toPlainString();
+        IdempotentResponse response = idempotencyService.execute(principal.getUsername(), idempotencyKey, fingerprint, () -> {
+            cardService.transferBetweenCards(fromCardId, toCardId, amount, user);
+            return HttpStatus.OK.value();
+        });
+        return ResponseEntity.status(response.getStatus())
+                .header("Idempotent-Replayed", String.valueOf(response.isReplayed()))
+                .build();
+    }
+
+    /**
+     * Выполняет пакет переводов между картами текущего пользователя.
+     * Тело запроса (JSON-массив переводов) читается потоково и выполняется
+     * порциями по {@code app.transfer.batch.chunk-size}, каждая порция в своей транзакции.
+     * Если тело оказалось некорректным после выполнения первых порций, эти порции не откатываются:
+     * ответ 400 содержит их результаты и запись FAILED с индексом первого невыполненного перевода.
+     * 
+     * @param request HTTP запрос с JSON-массивом переводов в теле
+     * @param principal текущий аутентифицированный пользователь
+     * @return результат каждого перевода в порядке следования в запросе
+     * @throws IOException если тело запроса не удалось прочитать
+     * @throws IllegalArgumentException если тело запроса не является JSON-массивом переводов
+     *         и ни одна порция еще не выполнена
+     */
+    @Operation(summary = "Пакетный перевод средств между картами",
+            description = "Выполняет JSON-массив переводов порциями в отдельных транзакциях и возвращает результат каждого перевода.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = TransferRequest.class)))))
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Пакет обработан, результаты по каждому переводу"),
+        @ApiResponse(responseCode = "400", description = "Тело запроса не является JSON-массивом переводов; "
+                + "если часть порций уже выполнена, ответ содержит их результаты и запись об ошибке разбора")
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<TransferResult>> transferBatch(HttpServletRequest request,
+                                              @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        User user = currentUser(principal);
+        List<TransferResult> results = new ArrayList<>();
+        List<TransferRequest> chunk = new ArrayList<>(batchChunkSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Request body must be a JSON array of transfers");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                chunk.add(objectMapper.readValue(parser, TransferRequest.class));
+                if (chunk.size() == batchChunkSize) {
+                    executeChunk(chunk, user, results);
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a transfer object or the end of the array");
+            }
+        } catch (JsonProcessingException e) {
+            if (results.isEmpty()) {
+                throw new IllegalArgumentException("Request body must be a JSON array of transfers");
+            }
+            // Выполненные порции уже зафиксированы, разобранный остаток текущей порции не выполняется
+            results.add(TransferResult.failed(results.size(),
+                    "Malformed request body, this and the following transfers were not executed: "
+                            + e.getOriginalMessage()));
+            return ResponseEntity.badRequest().body(results);
+        }
+        executeChunk(chunk, user, results);
+        return ResponseEntity.ok(results);
+    }
+
+    private void executeChunk(List<TransferRequest> chunk, User user, List<TransferResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int offset = results.size();
+        for (TransferResult result : cardService.transferBatch(chunk, user)) {
+            result.setIndex(offset + result.getIndex());
+            results.add(result);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Ссылка на текущего пользователя с id и именем из токена, без загрузки из базы данных.
+     */
+    private User currentUser(UserPrincipal principal) {
         User user = new User();
-        user.setUsername(principal.getName());
-        cardService.transferBetweenCards(fromCardId, toCardId, amount, user);
+        user.setId(principal.getId());
+        user.setUsername(principal.getUsername());
+        return user;
     }
-} 
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.entity.User;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
 import com.example.bankcards.util.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +62,20 @@ public class UserController {
         return userService.listUsers(pageable);
     }
 
+    @Operation(summary = "Получить пользователей по курсору",
+            description = "Возвращает пользователей после курсора after в порядке возрастания ID без OFFSET и count(*).")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Страница пользователей получена"),
+        @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы")
+    })
+    @GetMapping(params = "limit")
+    public CursorPage<UserDto> listUsersByCursor(
+            @Parameter(description = "Курсор следующей страницы") @RequestParam(required = false) String after,
+            @Parameter(description = "Размер страницы", example = "100") @RequestParam int limit,
+            @Parameter(description = "Подсчитать общее число пользователей") @RequestParam(defaultValue = "false") boolean count) {
+        return userService.listUsers(after, limit, count);
+    }
+
     @Operation(summary = "Создать пользователя", description = "Создает нового пользователя.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Пользователь создан"),
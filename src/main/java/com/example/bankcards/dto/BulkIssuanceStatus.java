@@ -0,0 +1,232 @@
+package com.example.bankcards.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO состояния задания массового выпуска карт.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class BulkIssuanceStatus {
+    /** Идентификатор задания выпуска */
+    private String jobId;
+
+    /** Статус задания (QUEUED, RUNNING, COMPLETED, FAILED) */
+    private String status;
+
+    /** ID владельца выпускаемых карт */
+    private Long ownerId;
+
+    /** Число прочитанных строк выгрузки */
+    private long rowsRead;
+
+    /** Число выпущенных карт */
+    private long issued;
+
+    /** Число отклоненных строк */
+    private long failed;
+
+    /** Первые ошибки с номерами строк */
+    private List<String> errors;
+
+    /** Время приема выгрузки */
+    private Instant startedAt;
+
+    /** Время завершения задания или null, если оно еще выполняется */
+    private Instant finishedAt;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public BulkIssuanceStatus() {}
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param jobId идентификатор задания
+     * @param status статус задания
+     * @param ownerId ID владельца выпускаемых карт
+     * @param rowsRead число прочитанных строк
+     * @param issued число выпущенных карт
+     * @param failed число отклоненных строк
+     * @param errors первые ошибки с номерами строк
+     * @param startedAt время приема выгрузки
+     * @param finishedAt время завершения задания
+     */
+    public BulkIssuanceStatus(String jobId, String status, Long ownerId, long rowsRead,
+                              long issued, long failed, List<String> errors, Instant startedAt, Instant finishedAt) {
+        this.jobId = jobId;
+        this.status = status;
+        this.ownerId = ownerId;
+        this.rowsRead = rowsRead;
+        this.issued = issued;
+        this.failed = failed;
+        this.errors = errors;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    /**
+     * Получает идентификатор задания.
+     * 
+     * @return идентификатор задания
+     */
+    public String getJobId() {
+        return jobId;
+    }
+
+    /**
+     * Устанавливает идентификатор задания.
+     * 
+     * @param jobId идентификатор задания
+     */
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * Получает статус задания.
+     * 
+     * @return статус задания
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Устанавливает статус задания.
+     * 
+     * @param status статус задания
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Получает ID владельца выпускаемых карт.
+     * 
+     * @return ID владельца выпускаемых карт
+     */
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Устанавливает ID владельца выпускаемых карт.
+     * 
+     * @param ownerId ID владельца выпускаемых карт
+     */
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    /**
+     * Получает число прочитанных строк.
+     * 
+     * @return число прочитанных строк
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Устанавливает число прочитанных строк.
+     * 
+     * @param rowsRead число прочитанных строк
+     */
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    /**
+     * Получает число выпущенных карт.
+     * 
+     * @return число выпущенных карт
+     */
+    public long getIssued() {
+        return issued;
+    }
+
+    /**
+     * Устанавливает число выпущенных карт.
+     * 
+     * @param issued число выпущенных карт
+     */
+    public void setIssued(long issued) {
+        this.issued = issued;
+    }
+
+    /**
+     * Получает число отклоненных строк.
+     * 
+     * @return число отклоненных строк
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Устанавливает число отклоненных строк.
+     * 
+     * @param failed число отклоненных строк
+     */
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * Получает первые ошибки с номерами строк.
+     * 
+     * @return первые ошибки с номерами строк
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Устанавливает первые ошибки с номерами строк.
+     * 
+     * @param errors первые ошибки с номерами строк
+     */
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Получает время приема выгрузки.
+     * 
+     * @return время приема выгрузки
+     */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Устанавливает время приема выгрузки.
+     * 
+     * @param startedAt время приема выгрузки
+     */
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Получает время завершения задания.
+     * 
+     * @return время завершения задания
+     */
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Устанавливает время завершения задания.
+     * 
+     * @param finishedAt время завершения задания
+     */
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
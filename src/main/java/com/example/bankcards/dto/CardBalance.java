@@ -0,0 +1,47 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Баланс карты вместе с владельцем, достаточный для проверки прав и ответа на запрос баланса.
+ * Объект неизменяемый: один экземпляр разделяется запросами через кэш балансов.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class CardBalance {
+    /** Идентификатор владельца карты */
+    private final Long ownerId;
+
+    /** Баланс карты */
+    private final BigDecimal balance;
+
+    /**
+     * Конструктор со всеми полями (используется в запросе-проекции CardRepository).
+     * 
+     * @param ownerId идентификатор владельца карты
+     * @param balance баланс карты
+     */
+    public CardBalance(Long ownerId, BigDecimal balance) {
+        this.ownerId = ownerId;
+        this.balance = balance;
+    }
+
+    /**
+     * Получает идентификатор владельца карты.
+     * 
+     * @return идентификатор владельца
+     */
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Получает баланс карты.
+     * 
+     * @return баланс карты
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+}
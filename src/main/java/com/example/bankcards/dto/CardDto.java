@@ -1,5 +1,8 @@
 package com.example.bankcards.dto;
 
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.util.CardMapper;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -54,6 +57,24 @@ public class CardDto {
         this.balance = balance;
     }
 
+    /**
+     * Конструктор для JPQL constructor expressions в CardRepository:
+     * DTO собирается прямо из строки запроса, без загрузки сущностей карты и владельца.
+     * 
+     * @param id уникальный идентификатор карты
+     * @param last4 последние 4 цифры номера карты (null, если строка еще не заполнена)
+     * @param encryptedCardNumber зашифрованный номер карты, расшифровывается только при пустом last4
+     * @param ownerUsername имя пользователя владельца карты
+     * @param expiryDate дата истечения срока действия карты
+     * @param status статус карты
+     * @param balance текущий баланс карты
+     */
+    public CardDto(Long id, String last4, String encryptedCardNumber, String ownerUsername,
+                   LocalDate expiryDate, Card.Status status, BigDecimal balance) {
+        this(id, CardMapper.maskedNumber(last4, encryptedCardNumber), ownerUsername, expiryDate,
+                status.name(), balance);
+    }
+
     /**
      * Получает уникальный идентификатор карты.
      * 
@@ -0,0 +1,142 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardTransaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * DTO записи журнала движений по карте.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class CardTransactionDto {
+    /** Идентификатор записи, он же курсор страницы */
+    private Long id;
+
+    /** Идентификатор второй карты перевода (null для корректировок) */
+    private Long counterpartyCardId;
+
+    /** Тип движения */
+    private String type;
+
+    /** Сумма движения: положительная для зачисления, отрицательная для списания */
+    private BigDecimal amount;
+
+    /** Время движения */
+    private Instant createdAt;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public CardTransactionDto() {}
+
+    /**
+     * Конструктор для JPQL constructor expression в CardTransactionRepository.
+     * 
+     * @param id идентификатор записи
+     * @param counterpartyCardId идентификатор второй карты перевода
+     * @param type тип движения
+     * @param amount сумма со знаком
+     * @param createdAt время движения
+     */
+    public CardTransactionDto(Long id, Long counterpartyCardId, CardTransaction.Type type, BigDecimal amount,
+                              Instant createdAt) {
+        this.id = id;
+        this.counterpartyCardId = counterpartyCardId;
+        this.type = type.name();
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Получает идентификатор записи.
+     * 
+     * @return идентификатор записи
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Устанавливает идентификатор записи.
+     * 
+     * @param id идентификатор записи
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Получает идентификатор второй карты перевода.
+     * 
+     * @return идентификатор второй карты или null
+     */
+    public Long getCounterpartyCardId() {
+        return counterpartyCardId;
+    }
+
+    /**
+     * Устанавливает идентификатор второй карты перевода.
+     * 
+     * @param counterpartyCardId идентификатор второй карты
+     */
+    public void setCounterpartyCardId(Long counterpartyCardId) {
+        this.counterpartyCardId = counterpartyCardId;
+    }
+
+    /**
+     * Получает тип движения.
+     * 
+     * @return тип движения
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Устанавливает тип движения.
+     * 
+     * @param type тип движения
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Получает сумму движения.
+     * 
+     * @return сумма со знаком
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /**
+     * Устанавливает сумму движения.
+     * 
+     * @param amount сумма со знаком
+     */
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * Получает время движения.
+     * 
+     * @return время движения
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Устанавливает время движения.
+     * 
+     * @param createdAt время движения
+     */
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bankcards.dto;
+
+import java.util.List;
+
+/**
+ * DTO страницы при постраничной выборке по курсору (keyset pagination).
+ * Следующая страница запрашивается с параметром {@code after}, равным {@link #getNextCursor()}.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class CursorPage<T> {
+    /** Элементы страницы в порядке возрастания id */
+    private List<T> items;
+
+    /** Курсор следующей страницы или null, если страница последняя */
+    private String nextCursor;
+
+    /** Общее число элементов; заполняется только по запросу */
+    private Long totalElements;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public CursorPage() {}
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param items элементы страницы
+     * @param nextCursor курсор следующей страницы
+     * @param totalElements общее число элементов
+     */
+    public CursorPage(List<T> items, String nextCursor, Long totalElements) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    /**
+     * Получает элементы страницы.
+     * 
+     * @return элементы страницы
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Устанавливает элементы страницы.
+     * 
+     * @param items элементы страницы
+     */
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    /**
+     * Получает курсор следующей страницы.
+     * 
+     * @return курсор следующей страницы или null, если страница последняя
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Устанавливает курсор следующей страницы.
+     * 
+     * @param nextCursor курсор следующей страницы
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Получает общее число элементов.
+     * 
+     * @return общее число элементов или null, если подсчет не запрашивался
+     */
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    /**
+     * Устанавливает общее число элементов.
+     * 
+     * @param totalElements общее число элементов
+     */
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
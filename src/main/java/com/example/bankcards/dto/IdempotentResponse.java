@@ -0,0 +1,45 @@
+package com.example.bankcards.dto;
+
+/**
+ * Результат выполнения запроса с ключом идемпотентности.
+ * Содержит HTTP статус ответа и признак того, что ответ взят из сохраненного.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class IdempotentResponse {
+    /** HTTP статус ответа */
+    private final int status;
+
+    /** Признак повторного запроса, ответ на который взят из хранилища */
+    private final boolean replayed;
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param status HTTP статус ответа
+     * @param replayed признак повторного запроса
+     */
+    public IdempotentResponse(int status, boolean replayed) {
+        this.status = status;
+        this.replayed = replayed;
+    }
+
+    /**
+     * Получает HTTP статус ответа.
+     * 
+     * @return HTTP статус ответа
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Проверяет, взят ли ответ из сохраненного.
+     * 
+     * @return true для повторного запроса
+     */
+    public boolean isReplayed() {
+        return replayed;
+    }
+}
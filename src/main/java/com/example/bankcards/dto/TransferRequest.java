@@ -0,0 +1,93 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO одного перевода в пакетном запросе.
+ * Содержит идентификаторы карт отправителя и получателя и сумму перевода.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class TransferRequest {
+    /** Идентификатор карты-отправителя */
+    private Long fromCardId;
+
+    /** Идентификатор карты-получателя */
+    private Long toCardId;
+
+    /** Сумма перевода */
+    private BigDecimal amount;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public TransferRequest() {}
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param fromCardId идентификатор карты-отправителя
+     * @param toCardId идентификатор карты-получателя
+     * @param amount сумма перевода
+     */
+    public TransferRequest(Long fromCardId, Long toCardId, BigDecimal amount) {
+        this.fromCardId = fromCardId;
+        this.toCardId = toCardId;
+        this.amount = amount;
+    }
+
+    /**
+     * Получает идентификатор карты-отправителя.
+     * 
+     * @return идентификатор карты-отправителя
+     */
+    public Long getFromCardId() {
+        return fromCardId;
+    }
+
+    /**
+     * Устанавливает идентификатор карты-отправителя.
+     * 
+     * @param fromCardId идентификатор карты-отправителя
+     */
+    public void setFromCardId(Long fromCardId) {
+        this.fromCardId = fromCardId;
+    }
+
+    /**
+     * Получает идентификатор карты-получателя.
+     * 
+     * @return идентификатор карты-получателя
+     */
+    public Long getToCardId() {
+        return toCardId;
+    }
+
+    /**
+     * Устанавливает идентификатор карты-получателя.
+     * 
+     * @param toCardId идентификатор карты-получателя
+     */
+    public void setToCardId(Long toCardId) {
+        this.toCardId = toCardId;
+    }
+
+    /**
+     * Получает сумму перевода.
+     * 
+     * @return сумма перевода
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /**
+     * Устанавливает сумму перевода.
+     * 
+     * @param amount сумма перевода
+     */
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankcards.dto;
+
+/**
+ * DTO результата одного перевода из пакетного запроса.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class TransferResult {
+    /** Порядковый номер перевода в пакете (с нуля) */
+    private int index;
+
+    /** Статус перевода (OK, FAILED) */
+    private String status;
+
+    /** Причина отказа, если перевод не выполнен */
+    private String error;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public TransferResult() {}
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param index порядковый номер перевода в пакете
+     * @param status статус перевода
+     * @param error причина отказа
+     */
+    public TransferResult(int index, String status, String error) {
+        this.index = index;
+        this.status = status;
+        this.error = error;
+    }
+
+    /**
+     * Создает результат успешного перевода.
+     * 
+     * @param index порядковый номер перевода в пакете
+     * @return результат со статусом OK
+     */
+    public static TransferResult ok(int index) {
+        return new TransferResult(index, "OK", null);
+    }
+
+    /**
+     * Создает результат отклоненного перевода.
+     * 
+     * @param index порядковый номер перевода в пакете
+     * @param error причина отказа
+     * @return результат со статусом FAILED
+     */
+    public static TransferResult failed(int index, String error) {
+        return new TransferResult(index, "FAILED", error);
+    }
+
+    /**
+     * Получает порядковый номер перевода в пакете.
+     * 
+     * @return порядковый номер перевода
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Устанавливает порядковый номер перевода в пакете.
+     * 
+     * @param index порядковый номер перевода
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Получает статус перевода.
+     * 
+     * @return статус перевода
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Устанавливает статус перевода.
+     * 
+     * @param status статус перевода
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Получает причину отказа.
+     * 
+     * @return причина отказа или null для успешного перевода
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Устанавливает причину отказа.
+     * 
+     * @param error причина отказа
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -15,15 +15,32 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Entity
 @Table(name = "cards")
 public class Card {
-    /** Уникальный идентификатор карты */
+    /** Уникальный идентификатор карты (из последовательности cards_seq блоками по 50) */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
 
     /** Зашифрованный номер карты */
     @Column(nullable = false, unique = true)
     private String cardNumber;
 
+    /** Последние 4 цифры номера карты для маскированного отображения */
+    @Column(length = 4)
+    private String last4;
+
+    /** HMAC-SHA256 номера карты для поиска без расшифровки */
+    @Column(name = "pan_hash", length = 64, unique = true)
+    private String panHash;
+
+    /** Номер уже заведен на другой карте: pan_hash не может быть заполнен из-за уникального индекса */
+    @Column(name = "pan_hash_conflict", nullable = false)
+    private boolean panHashConflict;
+
+    /** Номер карты не удалось расшифровать при фоновом заполнении last4 и pan_hash */
+    @Column(name = "backfill_failed", nullable = false)
+    private boolean backfillFailed;
+
     /** Владелец карты (исключен из JSON сериализации) */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
@@ -43,6 +60,11 @@ public class Card {
     @Column(nullable = false)
     private BigDecimal balance;
 
+    /** Версия записи для оптимистической блокировки */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Перечисление возможных статусов карты.
      */
@@ -87,6 +109,62 @@ public class Card {
      * @param cardNumber зашифрованный номер карты
      */
     public void setCardNumber(String cardNumber) { this.cardNumber = cardNumber; }
+
+    /**
+     * Получает последние 4 цифры номера карты.
+     * 
+     * @return последние 4 цифры или null, если строка еще не заполнена
+     */
+    public String getLast4() { return last4; }
+
+    /**
+     * Устанавливает последние 4 цифры номера карты.
+     * 
+     * @param last4 последние 4 цифры номера карты
+     */
+    public void setLast4(String last4) { this.last4 = last4; }
+
+    /**
+     * Получает HMAC номера карты.
+     * 
+     * @return HMAC номера карты или null, если строка еще не заполнена
+     */
+    public String getPanHash() { return panHash; }
+
+    /**
+     * Устанавливает HMAC номера карты.
+     * 
+     * @param panHash HMAC номера карты
+     */
+    public void setPanHash(String panHash) { this.panHash = panHash; }
+
+    /**
+     * Проверяет, что номер карты совпадает с номером другой карты и pan_hash не заполняется.
+     * 
+     * @return true, если фоновое заполнение обнаружило дубликат номера
+     */
+    public boolean isPanHashConflict() { return panHashConflict; }
+
+    /**
+     * Устанавливает признак дубликата номера карты.
+     * 
+     * @param panHashConflict признак дубликата номера карты
+     */
+    public void setPanHashConflict(boolean panHashConflict) { this.panHashConflict = panHashConflict; }
+
+    /**
+     * Проверяет, не удалось ли расшифровать номер карты при фоновом заполнении.
+     * 
+     * @return true, если фоновое заполнение не смогло расшифровать номер
+     */
+    public boolean isBackfillFailed() { return backfillFailed; }
+
+    /**
+     * Устанавливает признак ошибки расшифровки при фоновом заполнении.
+     * 
+     * @param backfillFailed признак ошибки расшифровки
+     */
+    public void setBackfillFailed(boolean backfillFailed) { this.backfillFailed = backfillFailed; }
     
     /**
      * Получает владельца карты.
@@ -144,6 +222,20 @@ public class Card {
      */
     public void setBalance(BigDecimal balance) { this.balance = balance; }
 
+    /**
+     * Получает версию записи карты.
+     * 
+     * @return версия записи
+     */
+    public Long getVersion() { return version; }
+    
+    /**
+     * Устанавливает версию записи карты.
+     * 
+     * @param version версия записи
+     */
+    public void setVersion(Long version) { this.version = version; }
+
     // Геттеры и сеттеры
     // equals, hashCode, toString
     // ... existing code ...
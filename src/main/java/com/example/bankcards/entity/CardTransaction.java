@@ -0,0 +1,126 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Entity класс записи журнала движений по карте.
+ * Журнал только дополняется: каждое изменение баланса карты записывается
+ * в той же транзакции, поэтому сумма записей по карте равна ее балансу.
+ * Записи сохраняются и после удаления карты, чтобы сверка не теряла историю.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Entity
+@Immutable
+@Table(name = "card_transactions")
+public class CardTransaction {
+    /**
+     * Идентификатор из последовательности с шагом 50: Hibernate выделяет id блоками
+     * и не обращается к базе данных за каждым id, поэтому вставки уходят пакетами.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_transactions_seq")
+    @SequenceGenerator(name = "card_transactions_seq", sequenceName = "card_transactions_seq", allocationSize = 50)
+    private Long id;
+
+    /** Идентификатор карты */
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    /** Идентификатор второй карты перевода (null для корректировок) */
+    @Column(name = "counterparty_card_id")
+    private Long counterpartyCardId;
+
+    /** Тип движения */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    /** Сумма движения: положительная для зачисления, отрицательная для списания */
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    /** Время движения */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Перечисление типов движений по карте.
+     */
+    public enum Type {
+        /** Списание при переводе с карты */
+        TRANSFER_DEBIT,
+        /** Зачисление при переводе на карту */
+        TRANSFER_CREDIT,
+        /** Установка баланса при создании или изменении карты администратором */
+        ADJUSTMENT
+    }
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public CardTransaction() {}
+
+    /**
+     * Конструктор новой записи журнала.
+     * 
+     * @param cardId идентификатор карты
+     * @param counterpartyCardId идентификатор второй карты перевода или null
+     * @param type тип движения
+     * @param amount сумма со знаком
+     */
+    public CardTransaction(Long cardId, Long counterpartyCardId, Type type, BigDecimal amount) {
+        this.cardId = cardId;
+        this.counterpartyCardId = counterpartyCardId;
+        this.type = type;
+        this.amount = amount;
+        this.createdAt = Instant.now();
+    }
+
+    /**
+     * Получает идентификатор записи.
+     * 
+     * @return идентификатор записи
+     */
+    public Long getId() { return id; }
+
+    /**
+     * Получает идентификатор карты.
+     * 
+     * @return идентификатор карты
+     */
+    public Long getCardId() { return cardId; }
+
+    /**
+     * Получает идентификатор второй карты перевода.
+     * 
+     * @return идентификатор второй карты или null
+     */
+    public Long getCounterpartyCardId() { return counterpartyCardId; }
+
+    /**
+     * Получает тип движения.
+     * 
+     * @return тип движения
+     */
+    public Type getType() { return type; }
+
+    /**
+     * Получает сумму движения.
+     * 
+     * @return сумма со знаком
+     */
+    public BigDecimal getAmount() { return amount; }
+
+    /**
+     * Получает время движения.
+     * 
+     * @return время движения
+     */
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,141 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Entity класс для хранения ключей идемпотентности запросов.
+ * Фиксирует, что запрос с данным ключом уже выполняется или выполнен,
+ * и хранит код ответа для повторных запросов клиента.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+    /** Ключ идемпотентности, уникальный в пределах пользователя (длина имени:имя:key) */
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    /** Имя пользователя, выполнившего запрос */
+    @Column(nullable = false)
+    private String username;
+
+    /** Состояние обработки запроса (IN_PROGRESS, COMPLETED) */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    /** SHA-256 параметров запроса; повтор с другими параметрами отклоняется */
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    /** HTTP статус сохраненного ответа */
+    @Column
+    private Integer responseStatus;
+
+    /** Время регистрации ключа */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Перечисление состояний обработки запроса.
+     */
+    public enum Status {
+        /** Запрос выполняется */
+        IN_PROGRESS,
+        /** Запрос выполнен, ответ сохранен */
+        COMPLETED
+    }
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public IdempotencyKey() {}
+
+    /**
+     * Получает ключ идемпотентности.
+     * 
+     * @return ключ идемпотентности
+     */
+    public String getKey() { return key; }
+    
+    /**
+     * Устанавливает ключ идемпотентности.
+     * 
+     * @param key ключ идемпотентности
+     */
+    public void setKey(String key) { this.key = key; }
+    
+    /**
+     * Получает имя пользователя.
+     * 
+     * @return имя пользователя
+     */
+    public String getUsername() { return username; }
+    
+    /**
+     * Устанавливает имя пользователя.
+     * 
+     * @param username имя пользователя
+     */
+    public void setUsername(String username) { this.username = username; }
+    
+    /**
+     * Получает состояние обработки запроса.
+     * 
+     * @return состояние обработки
+     */
+    public Status getStatus() { return status; }
+    
+    /**
+     * Устанавливает состояние обработки запроса.
+     * 
+     * @param status состояние обработки
+     */
+    public void setStatus(Status status) { this.status = status; }
+    
+    /**
+     * Получает SHA-256 параметров запроса.
+     * 
+     * @return SHA-256 параметров или null для ключей, зарегистрированных без него
+     */
+    public String getRequestHash() { return requestHash; }
+    
+    /**
+     * Устанавливает SHA-256 параметров запроса.
+     * 
+     * @param requestHash SHA-256 параметров запроса
+     */
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+    
+    /**
+     * Получает HTTP статус сохраненного ответа.
+     * 
+     * @return HTTP статус или null, если запрос еще выполняется
+     */
+    public Integer getResponseStatus() { return responseStatus; }
+    
+    /**
+     * Устанавливает HTTP статус сохраненного ответа.
+     * 
+     * @param responseStatus HTTP статус
+     */
+    public void setResponseStatus(Integer responseStatus) { this.responseStatus = responseStatus; }
+    
+    /**
+     * Получает время регистрации ключа.
+     * 
+     * @return время регистрации
+     */
+    public Instant getCreatedAt() { return createdAt; }
+    
+    /**
+     * Устанавливает время регистрации ключа.
+     * 
+     * @param createdAt время регистрации
+     */
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
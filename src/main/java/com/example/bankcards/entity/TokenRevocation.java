@@ -0,0 +1,69 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Entity класс версии JWT токенов пользователя.
+ * Каждый отзыв токенов (изменение или удаление пользователя) увеличивает версию;
+ * токен с версией меньше текущей недействителен. Записи не связаны внешним ключом
+ * с users и сохраняются после удаления пользователя.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+    /** Идентификатор пользователя */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** Текущая версия токенов пользователя */
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    /** Время последнего отзыва */
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public TokenRevocation() {}
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param userId идентификатор пользователя
+     * @param tokenVersion текущая версия токенов
+     * @param revokedAt время последнего отзыва
+     */
+    public TokenRevocation(Long userId, int tokenVersion, Instant revokedAt) {
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.revokedAt = revokedAt;
+    }
+
+    /**
+     * Получает идентификатор пользователя.
+     * 
+     * @return идентификатор пользователя
+     */
+    public Long getUserId() { return userId; }
+
+    /**
+     * Получает текущую версию токенов пользователя.
+     * 
+     * @return версия токенов
+     */
+    public int getTokenVersion() { return tokenVersion; }
+
+    /**
+     * Получает время последнего отзыва.
+     * 
+     * @return время отзыва
+     */
+    public Instant getRevokedAt() { return revokedAt; }
+}
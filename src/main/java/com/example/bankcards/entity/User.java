@@ -14,9 +14,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Entity
 @Table(name = "users")
 public class User {
-    /** Уникальный идентификатор пользователя */
+    /** Уникальный идентификатор пользователя (из последовательности users_seq блоками по 50) */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /** Уникальное имя пользователя */
@@ -31,8 +32,12 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
-    /** Роли пользователя в системе */
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * Роли пользователя в системе. Загружаются лениво: пути, которым нужны роли,
+     * используют finder с entity graph, списки догружают роли пакетно
+     * (hibernate.default_batch_fetch_size).
+     */
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
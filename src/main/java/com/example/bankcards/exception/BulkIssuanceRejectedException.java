@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+/**
+ * Исключение, выбрасываемое, когда новое задание массового выпуска карт не принято,
+ * потому что заняты все места для выполняемых и ожидающих заданий.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class BulkIssuanceRejectedException extends RuntimeException {
+    /**
+     * Конструктор с сообщением об ошибке.
+     * 
+     * @param message сообщение об ошибке
+     */
+    public BulkIssuanceRejectedException(String message) {
+        super(message);
+    }
+}
@@ -69,6 +69,62 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    /**
+     * Обрабатывает конфликты конкурентных переводов.
+     * 
+     * @param ex исключение конфликта перевода
+     * @return ResponseEntity с сообщением об ошибке и статусом 409
+     */
+    @ExceptionHandler(TransferConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Map<String, String>> handleTransferConflictException(TransferConflictException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Обрабатывает отказ в приеме задания массового выпуска при заполненной очереди.
+     * 
+     * @param ex исключение отказа в приеме задания
+     * @return ResponseEntity с сообщением об ошибке и статусом 429
+     */
+    @ExceptionHandler(BulkIssuanceRejectedException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<Map<String, String>> handleBulkIssuanceRejectedException(BulkIssuanceRejectedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
+    /**
+     * Обрабатывает повторные запросы, исходный запрос которых еще выполняется.
+     * 
+     * @param ex исключение конфликта ключа идемпотентности
+     * @return ResponseEntity с сообщением об ошибке и статусом 409
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<Map<String, String>> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Обрабатывает повторное использование ключа идемпотентности с другими параметрами запроса.
+     * 
+     * @param ex исключение несовпадения параметров запроса
+     * @return ResponseEntity с сообщением об ошибке и статусом 422
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public ResponseEntity<Map<String, String>> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
     /**
      * Обрабатывает исключения отсутствия пользователя.
      * 
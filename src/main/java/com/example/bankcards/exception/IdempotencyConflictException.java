@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+/**
+ * Исключение, выбрасываемое, когда запрос с тем же ключом идемпотентности
+ * еще выполняется и его результат пока неизвестен.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    /**
+     * Конструктор с сообщением об ошибке.
+     * 
+     * @param message сообщение об ошибке
+     */
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+/**
+ * Исключение, выбрасываемое, когда ключ идемпотентности повторно используется
+ * с другими параметрами запроса.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    /**
+     * Конструктор с сообщением об ошибке.
+     * 
+     * @param message сообщение об ошибке
+     */
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
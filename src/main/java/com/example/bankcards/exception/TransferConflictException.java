@@ -0,0 +1,19 @@
+package com.example.bankcards.exception;
+
+/**
+ * Исключение, выбрасываемое, когда перевод не удалось выполнить
+ * из-за конкурентных изменений карт после исчерпания всех повторных попыток.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class TransferConflictException extends RuntimeException {
+    /**
+     * Конструктор с сообщением об ошибке.
+     * 
+     * @param message сообщение об ошибке
+     */
+    public TransferConflictException(String message) {
+        super(message);
+    }
+}
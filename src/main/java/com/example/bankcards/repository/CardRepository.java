@@ -1,13 +1,169 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.CardBalance;
+import com.example.bankcards.dto.CardDto;
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CardRepository extends JpaRepository<Card, Long> {
-    Optional<Card> findByCardNumber(String cardNumber);
-    Page<Card> findAllByOwner(User owner, Pageable pageable);
-} 
\ No newline at end of file
+    /**
+     * Ищет карту по HMAC номера ({@link com.example.bankcards.util.CardHashUtil#hash}).
+     */
+    Optional<Card> findByPanHash(String panHash);
+    boolean existsByPanHash(String panHash);
+
+    /**
+     * Возвращает уже занятые HMAC номеров из переданного набора.
+     */
+    @Query("select c.panHash from Card c where c.panHash in :panHashes")
+    List<String> findExistingPanHashes(@Param("panHashes") Collection<String> panHashes);
+    long countByOwnerId(Long ownerId);
+
+    /**
+     * Карта в виде DTO одним запросом с именем владельца, без загрузки сущностей.
+     */
+    @Query("select new com.example.bankcards.dto.CardDto(c.id, c.last4, c.cardNumber, o.username, " +
+            "c.expiryDate, c.status, c.balance) from Card c join c.owner o where c.id = :id")
+    Optional<CardDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Страница карт владельца в виде DTO; при сортировке по id читается диапазон индекса (owner_id, id).
+     */
+    @Query(value = "select new com.example.bankcards.dto.CardDto(c.id, c.last4, c.cardNumber, o.username, " +
+            "c.expiryDate, c.status, c.balance) from Card c join c.owner o where o.id = :ownerId",
+            countQuery = "select count(c) from Card c where c.owner.id = :ownerId")
+    Page<CardDto> findDtosByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Страница карт владельца в виде DTO после заданного id (keyset): без OFFSET и без count(*).
+     */
+    @Query("select new com.example.bankcards.dto.CardDto(c.id, c.last4, c.cardNumber, o.username, " +
+            "c.expiryDate, c.status, c.balance) from Card c join c.owner o " +
+            "where o.id = :ownerId and c.id > :afterId order by c.id")
+    List<CardDto> findDtosByOwnerIdAfter(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Все карты с владельцами в порядке id для потоковой выгрузки.
+     * Строки читаются курсором порциями по 500 (в PostgreSQL требует открытой транзакции)
+     * и не отслеживаются на изменения; поток нужно закрыть.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Card c join fetch c.owner order by c.id")
+    Stream<Card> streamAllWithOwner();
+
+    /**
+     * Загружает карту с блокировкой строки (SELECT ... FOR UPDATE) до конца транзакции.
+     * При блокировке нескольких карт вызывать в порядке возрастания id.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Card c where c.id = :id")
+    Optional<Card> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Загружает карты с блокировкой строк; строки блокируются в порядке возрастания id.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Card c where c.id in :ids order by c.id")
+    List<Card> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Списывает сумму одним UPDATE, если карта активна, не просрочена, принадлежит владельцу
+     * и на ней достаточно средств. Текущая дата передается из приложения, как и в остальных проверках срока.
+     * Возвращает число измененных строк (0 или 1).
+     */
+    @Modifying
+    @Query(value = "UPDATE cards SET balance = balance - :amount, version = version + 1 " +
+            "WHERE id = :id AND owner_id = :ownerId AND status = 'ACTIVE' AND expiry_date >= :today " +
+            "AND balance >= :amount",
+            nativeQuery = true)
+    int debit(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount,
+              @Param("today") LocalDate today);
+
+    /**
+     * Зачисляет сумму одним UPDATE, если карта активна, не просрочена и принадлежит владельцу.
+     * Возвращает число измененных строк (0 или 1).
+     */
+    @Modifying
+    @Query(value = "UPDATE cards SET balance = balance + :amount, version = version + 1 " +
+            "WHERE id = :id AND owner_id = :ownerId AND status = 'ACTIVE' AND expiry_date >= :today",
+            nativeQuery = true)
+    int credit(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("amount") BigDecimal amount,
+               @Param("today") LocalDate today);
+
+    boolean existsByIdAndOwnerId(Long id, Long ownerId);
+
+    /**
+     * Возвращает владельца и баланс карты без загрузки сущности.
+     */
+    @Query("select new com.example.bankcards.dto.CardBalance(c.owner.id, c.balance) from Card c where c.id = :id")
+    Optional<CardBalance> findBalanceById(@Param("id") Long id);
+
+    /**
+     * Возвращает порцию карт без last4 или pan_hash с id больше заданного, в порядке возрастания id.
+     * Карты с дубликатом номера (pan_hash_conflict) и с нерасшифровываемым номером (backfill_failed)
+     * повторно не выбираются.
+     */
+    @Query("select c.id as id, c.cardNumber as cardNumber from Card c " +
+            "where (c.last4 is null or (c.panHash is null and c.panHashConflict = false)) " +
+            "and c.backfillFailed = false and c.id > :afterId " +
+            "order by c.id")
+    List<EncryptedCardNumber> findNotBackfilled(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Заполняет пустые last4 и pan_hash; заполненные значения не меняются. Для дубликата номера
+     * вместо pan_hash выставляется pan_hash_conflict, и строка больше не выбирается для заполнения.
+     * Строка, которой нечего заполнять, не обновляется. Версия увеличивается, чтобы параллельный
+     * оптимистический перевод перечитал карту, а не затер колонки старыми значениями.
+     */
+    @Modifying
+    @Query("update Card c set c.last4 = coalesce(c.last4, :last4), c.panHash = coalesce(c.panHash, :panHash), " +
+            "c.panHashConflict = :panHashConflict, c.version = c.version + 1 " +
+            "where c.id = :id and (c.last4 is null or (c.panHash is null and c.panHashConflict = false))")
+    int updateBackfilledColumns(@Param("id") Long id, @Param("last4") String last4, @Param("panHash") String panHash,
+                                @Param("panHashConflict") boolean panHashConflict);
+
+    /**
+     * Помечает карту, номер которой не удалось расшифровать, чтобы фоновое заполнение
+     * не расшифровывало ее в каждом запуске. Найти такие карты можно по backfill_failed.
+     */
+    @Modifying
+    @Query("update Card c set c.backfillFailed = true, c.version = c.version + 1 " +
+            "where c.id = :id and c.backfillFailed = false")
+    int markBackfillFailed(@Param("id") Long id);
+
+    /**
+     * Переводит в EXPIRED до limit карт со сроком действия раньше today одним UPDATE
+     * и возвращает их id. Строки, заблокированные другими транзакциями, пропускаются.
+     * Условие совпадает с частичным индексом idx_cards_expiry_date_not_expired (PostgreSQL).
+     */
+    @Query(value = "UPDATE cards SET status = 'EXPIRED', version = version + 1 WHERE id IN (" +
+            "SELECT id FROM cards WHERE expiry_date < :today AND status <> 'EXPIRED' " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING id",
+            nativeQuery = true)
+    List<Long> expireBefore(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    interface EncryptedCardNumber {
+        Long getId();
+        String getCardNumber();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardTransactionDto;
+import com.example.bankcards.entity.CardTransaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CardTransactionRepository extends JpaRepository<CardTransaction, Long> {
+    /**
+     * Страница журнала карты от новых записей к старым, с id меньше beforeId;
+     * читается одним диапазоном индекса (card_id, id).
+     */
+    @Query("select new com.example.bankcards.dto.CardTransactionDto(t.id, t.counterpartyCardId, t.type, t.amount, " +
+            "t.createdAt) from CardTransaction t where t.cardId = :cardId and t.id < :beforeId order by t.id desc")
+    List<CardTransactionDto> findDtosByCardIdBefore(@Param("cardId") Long cardId, @Param("beforeId") Long beforeId,
+                                                    Limit limit);
+
+    long countByCardId(Long cardId);
+}
@@ -0,0 +1,47 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    /**
+     * Атомарно занимает ключ. Возвращает 1, если ключ зарегистрирован этим вызовом или занят
+     * повторно, потому что остался IN_PROGRESS с момента раньше leaseExpiredBefore,
+     * и 0, если ключ уже существует.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, username, status, request_hash, created_at) " +
+            "VALUES (:key, :username, 'IN_PROGRESS', :requestHash, :createdAt) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+            "created_at = EXCLUDED.created_at " +
+            "WHERE idempotency_keys.status = 'IN_PROGRESS' AND idempotency_keys.created_at < :leaseExpiredBefore " +
+            "AND (idempotency_keys.request_hash IS NULL OR idempotency_keys.request_hash = EXCLUDED.request_hash)",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("username") String username, @Param("requestHash") String requestHash,
+              @Param("createdAt") Instant createdAt, @Param("leaseExpiredBefore") Instant leaseExpiredBefore);
+
+    /**
+     * Отмечает выполнение запроса, если ключ все еще занят этим запросом (created_at = claimedAt).
+     * Возвращает 0, если ключ перехвачен другим запросом после истечения аренды.
+     */
+    @Modifying
+    @Query("update IdempotencyKey k set k.status = :status, k.responseStatus = :responseStatus " +
+            "where k.key = :key and k.createdAt = :claimedAt")
+    int complete(@Param("key") String key, @Param("claimedAt") Instant claimedAt,
+                 @Param("status") IdempotencyKey.Status status, @Param("responseStatus") Integer responseStatus);
+
+    /**
+     * Освобождает ключ неуспешного запроса, если ключ все еще занят этим запросом.
+     */
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.key = :key and k.createdAt = :claimedAt")
+    int release(@Param("key") String key, @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :threshold")
+    int deleteCreatedBefore(@Param("threshold") Instant threshold);
+}
@@ -0,0 +1,86 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardBalance;
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Неблокирующий доступ к таблице cards через R2DBC для /api/reactive.
+ * Пул соединений R2DBC создается здесь, а не бином ConnectionFactory: такой бин
+ * отключил бы автоконфигурацию JDBC DataSource, на которой работает остальное приложение.
+ */
+@Repository
+public class ReactiveCardRepository implements DisposableBean {
+    private static final String SELECT_CARD_DTO = "SELECT c.id, c.last4, c.card_number, u.username, "
+            + "c.expiry_date, c.status, c.balance FROM cards c JOIN users u ON u.id = c.owner_id ";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    /** Число строк, запрашиваемых у базы данных за раз при потоковой выборке */
+    @Value("${app.reactive.fetch-size:100}")
+    private int fetchSize = 100;
+
+    public ReactiveCardRepository(@Value("${spring.r2dbc.url}") String url,
+                                  @Value("${spring.r2dbc.username}") String username,
+                                  @Value("${spring.r2dbc.password}") String password,
+                                  @Value("${spring.r2dbc.pool.max-size:10}") int maxPoolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxPoolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Возвращает владельца и баланс карты.
+     */
+    public Mono<CardBalance> findBalanceById(Long id) {
+        return databaseClient.sql("SELECT owner_id, balance FROM cards WHERE id = :id")
+                .bind("id", id)
+                .map(row -> new CardBalance(row.get("owner_id", Long.class), row.get("balance", BigDecimal.class)))
+                .one();
+    }
+
+    /**
+     * Возвращает карты владельца с id больше afterId в порядке возрастания id.
+     * Строки читаются порциями по fetchSize по мере запроса подписчика.
+     */
+    public Flux<CardDto> findDtosByOwnerIdAfter(Long ownerId, long afterId, long limit) {
+        return databaseClient.sql(SELECT_CARD_DTO + "WHERE c.owner_id = :ownerId AND c.id > :afterId ORDER BY c.id LIMIT :limit")
+                .bind("ownerId", ownerId)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveCardRepository::toDto)
+                .all();
+    }
+
+    private static CardDto toDto(Readable row) {
+        return new CardDto(row.get("id", Long.class), row.get("last4", String.class), row.get("card_number", String.class),
+                row.get("username", String.class), row.get("expiry_date", LocalDate.class),
+                Card.Status.valueOf(row.get("status", String.class)), row.get("balance", BigDecimal.class));
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
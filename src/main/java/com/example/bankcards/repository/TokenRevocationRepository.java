@@ -0,0 +1,30 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    /**
+     * Увеличивает версию токенов пользователя (первый отзыв задает версию 1) и возвращает новую версию.
+     * Строка остается заблокированной до конца транзакции, поэтому одновременные отзывы не теряются.
+     */
+    @Query(value = "INSERT INTO token_revocations (user_id, token_version, revoked_at) VALUES (:userId, 1, :revokedAt) " +
+            "ON CONFLICT (user_id) DO UPDATE SET token_version = token_revocations.token_version + 1, " +
+            "revoked_at = EXCLUDED.revoked_at RETURNING token_version",
+            nativeQuery = true)
+    int incrementVersion(@Param("userId") Long userId, @Param("revokedAt") Instant revokedAt);
+
+    @Query("select r.tokenVersion from TokenRevocation r where r.userId = :userId")
+    Optional<Integer> findVersion(@Param("userId") Long userId);
+
+    /**
+     * Отзывы позже заданного момента; читается по индексу revoked_at.
+     */
+    List<TokenRevocation> findByRevokedAtAfter(Instant since);
+}
@@ -1,10 +1,27 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
-} 
\ No newline at end of file
+
+    /**
+     * Пользователь вместе с ролями одним запросом (для аутентификации и карточки пользователя).
+     */
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesById(Long id);
+
+    /**
+     * Страница пользователей после заданного id (keyset): без OFFSET и без count(*).
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+}
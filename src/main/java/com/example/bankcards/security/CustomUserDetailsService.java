@@ -1,17 +1,17 @@
 package com.example.bankcards.security;
 
+import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Кастомная реализация UserDetailsService для Spring Security.
@@ -24,20 +24,28 @@ import java.util.stream.Collectors;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final RoleRegistry roleRegistry;
 
     /**
-     * Конструктор с внедрением зависимости UserRepository.
+     * Конструктор с внедрением зависимостей.
      * 
      * @param userRepository репозиторий для работы с пользователями
+     * @param principalCache кэш загруженных пользователей
+     * @param roleRegistry реестр ролей с общими экземплярами прав
      */
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, PrincipalCache principalCache,
+                                    RoleRegistry roleRegistry) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.roleRegistry = roleRegistry;
     }
 
     /**
      * Загружает пользователя по имени пользователя и создает UserDetails объект.
      * Преобразует роли пользователя в GrantedAuthority для Spring Security.
+     * Повторные запросы обслуживаются из {@link PrincipalCache} без обращения к базе данных.
      * 
      * @param username имя пользователя для загрузки
      * @return UserDetails объект с информацией о пользователе и его ролях
@@ -45,12 +53,20 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        return principalCache.get(username, this::loadFromDatabase);
+    }
+
+    private UserPrincipal loadFromDatabase(String username) {
+        User user = userRepository.findWithRolesByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        Set<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName().name()))
-                .collect(Collectors.toSet());
-        return new org.springframework.security.core.userdetails.User(
+        List<GrantedAuthority> authorities = new ArrayList<>(user.getRoles().size());
+        for (Role role : user.getRoles()) {
+            GrantedAuthority authority = roleRegistry.authority(role.getId());
+            // Роль, созданная после последнего обновления реестра
+            authorities.add(authority != null ? authority : roleRegistry.authority("ROLE_" + role.getName().name()));
+        }
+        return new UserPrincipal(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
                 authorities
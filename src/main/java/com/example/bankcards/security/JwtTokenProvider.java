@@ -1,11 +1,28 @@
 package com.example.bankcards.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Провайдер для работы с JWT токенами.
@@ -16,6 +33,15 @@ import java.util.Date;
  */
 @Component
 public class JwtTokenProvider {
+    /** Claim с идентификатором пользователя */
+    static final String USER_ID_CLAIM = "uid";
+
+    /** Claim с ролями пользователя (ROLE_USER, ROLE_ADMIN) */
+    static final String ROLES_CLAIM = "roles";
+
+    /** Claim с версией токенов пользователя на момент выдачи */
+    static final String TOKEN_VERSION_CLAIM = "tv";
+
     /** Секретный ключ для подписи JWT токенов */
     @Value("${app.jwtSecret:SecretKey1234567890}")
     private String jwtSecret;
@@ -24,8 +50,61 @@ public class JwtTokenProvider {
     @Value("${app.jwtExpirationMs:86400000}")
     private int jwtExpirationMs;
 
+    /** Режим авторизации по claims токена без загрузки пользователя из базы данных */
+    @Value("${app.jwt.stateless:false}")
+    private boolean statelessAuthorization;
+
+    /** Время жизни JWT токена в миллисекундах в режиме без обращения к базе данных */
+    @Value("${app.jwt.stateless-expiration-ms:900000}")
+    private int statelessExpirationMs;
+
+    /** Максимальное число проверенных токенов в кэше; 0 отключает кэш */
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    /** Максимальное время хранения проверенного токена в кэше */
+    @Value("${app.jwt.verified-cache.ttl:PT5M}")
+    private Duration verifiedCacheTtl;
+
+    private final RoleRegistry roleRegistry;
+    private final TokenRevocationList tokenRevocationList;
+
+    private Key signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     * 
+     * @param roleRegistry реестр ролей с общими экземплярами прав
+     * @param tokenRevocationList список отзыва JWT токенов
+     */
+    @Autowired
+    public JwtTokenProvider(RoleRegistry roleRegistry, TokenRevocationList tokenRevocationList) {
+        this.roleRegistry = roleRegistry;
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    /**
+     * Подготавливает ключ подписи, парсер и кэш проверенных токенов один раз при старте.
+     */
+    @PostConstruct
+    public void init() {
+        // Секрет, как и раньше в signWith/setSigningKey, задан в Base64
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+        verifiedTokens = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .expireAfter(new TokenExpiry(verifiedCacheTtl))
+                        .build()
+                : null;
+    }
+
     /**
      * Генерирует JWT токен для аутентифицированного пользователя.
+     * Токен содержит id, роли и версию токенов пользователя, чтобы в режиме
+     * {@code app.jwt.stateless} запросы авторизовывались без обращения к базе данных.
      * 
      * @param authentication объект аутентификации Spring Security
      * @return JWT токен в виде строки
@@ -33,15 +112,95 @@ public class JwtTokenProvider {
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
-        return Jwts.builder()
+        Date expiryDate = new Date(now.getTime() + (statelessAuthorization ? statelessExpirationMs : jwtExpirationMs));
+        JwtBuilder builder = Jwts.builder();
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            List<String> roles = new ArrayList<>();
+            for (GrantedAuthority authority : principal.getAuthorities()) {
+                roles.add(authority.getAuthority());
+            }
+            builder.claim(USER_ID_CLAIM, principal.getId())
+                    .claim(ROLES_CLAIM, roles)
+                    .claim(TOKEN_VERSION_CLAIM, tokenRevocationList.currentVersion(principal.getId()));
+        }
+        return builder
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
+    /**
+     * Проверяет, включен ли режим авторизации по claims токена.
+     * 
+     * @return true, если пользователь восстанавливается из токена без обращения к базе данных
+     */
+    public boolean isStatelessAuthorization() {
+        return statelessAuthorization;
+    }
+
+    /**
+     * Проверяет подпись и срок действия JWT токена и возвращает его claims за один разбор.
+     * Недавно проверенные токены берутся из кэша по SHA-256 токена без повторной проверки подписи.
+     * Возвращаемые claims могут быть общими для нескольких запросов и не должны изменяться.
+     * 
+     * @param token JWT токен
+     * @return claims токена или null, если токен некорректный или истек
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        if (verifiedTokens == null) {
+            return verify(token);
+        }
+        String key = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            if (!isExpired(claims)) {
+                return claims;
+            }
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+        claims = verify(token);
+        if (claims != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Восстанавливает пользователя из claims токена.
+     * 
+     * @param claims проверенные claims токена
+     * @return пользователь с id и ролями из токена или null, если токен выдан без них
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(userId instanceof Number) || !(roles instanceof Collection<?> roleNames)) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(roleNames.size());
+        for (Object role : roleNames) {
+            authorities.add(roleRegistry.authority(String.valueOf(role)));
+        }
+        return new UserPrincipal(((Number) userId).longValue(), claims.getSubject(), "", authorities);
+    }
+
+    /**
+     * Извлекает версию токенов пользователя из claims токена.
+     * 
+     * @param claims проверенные claims токена
+     * @return версия токенов или 0, если токен выдан без нее
+     */
+    public int getTokenVersion(Claims claims) {
+        Object version = claims.get(TOKEN_VERSION_CLAIM);
+        return version instanceof Number number ? number.intValue() : 0;
+    }
+
     /**
      * Извлекает имя пользователя из JWT токена.
      * 
@@ -50,7 +209,7 @@ public class JwtTokenProvider {
      * @throws JwtException если токен некорректный
      */
     public String getUsernameFromToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     /**
@@ -60,11 +219,59 @@ public class JwtTokenProvider {
      * @return true если токен валиден, false в противном случае
      */
     public boolean validateToken(String authToken) {
+        return parseToken(authToken) != null;
+    }
+
+    private Claims verify(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Запись кэша живет не дольше заданного времени и не дольше срока действия токена.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+        private final long maxTtlNanos;
+
+        TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 } 
\ No newline at end of file
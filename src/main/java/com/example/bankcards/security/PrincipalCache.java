@@ -0,0 +1,65 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.util.CacheUtils;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш загруженных пользователей для аутентификации по JWT.
+ * Ограничен по размеру и времени жизни записи; изменения пользователей
+ * сбрасывают запись явно.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class PrincipalCache {
+    private final AsyncCache<String, UserPrincipal> cache;
+
+    /**
+     * Конструктор с параметрами кэша.
+     * 
+     * @param meterRegistry реестр метрик попаданий и промахов кэша
+     * @param maxSize максимальное число пользователей в кэше
+     * @param ttl время жизни записи
+     */
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "principals");
+    }
+
+    /**
+     * Возвращает пользователя из кэша, загружая его при отсутствии.
+     * Возвращается копия: после входа ProviderManager стирает пароль
+     * у полученного UserDetails, и кэшированный экземпляр не должен это видеть.
+     * 
+     * @param username имя пользователя
+     * @param loader загрузчик пользователя из базы данных
+     * @return копия данных пользователя
+     */
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        return CacheUtils.getOrLoad(cache, username, loader).copy();
+    }
+
+    /**
+     * Сбрасывает пользователя из кэша.
+     * 
+     * @param username имя пользователя
+     */
+    public void evict(String username) {
+        cache.synchronous().invalidate(username);
+    }
+}
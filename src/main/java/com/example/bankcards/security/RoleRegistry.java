@@ -0,0 +1,123 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Role.RoleName;
+import com.example.bankcards.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Реестр ролей в памяти. Роли загружаются при старте и перечитываются по
+ * {@link RolesChangedEvent}; каждой роли соответствует один заранее созданный
+ * {@link GrantedAuthority}, поэтому права пользователя собираются без обращения
+ * к таблице ролей и без создания объектов на запрос.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class RoleRegistry {
+    /** Права для всех имен ролей, в том числе еще не созданных в базе данных */
+    private static final Map<String, GrantedAuthority> AUTHORITIES_BY_NAME = new HashMap<>();
+
+    static {
+        for (RoleName name : RoleName.values()) {
+            AUTHORITIES_BY_NAME.put(authorityName(name), new SimpleGrantedAuthority(authorityName(name)));
+        }
+    }
+
+    private final RoleRepository roleRepository;
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     * 
+     * @param roleRepository репозиторий ролей
+     */
+    @Autowired
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Перечитывает роли из базы данных. Вызывается при старте и после коммита
+     * транзакции, изменившей роли.
+     */
+    @PostConstruct
+    @TransactionalEventListener(value = RolesChangedEvent.class, fallbackExecution = true)
+    public void refresh() {
+        snapshot = new Snapshot(roleRepository.findAll());
+    }
+
+    /**
+     * Ищет роль по имени.
+     * 
+     * @param name имя роли
+     * @return роль (отсоединенная сущность) или пустой Optional, если роль еще не создана
+     */
+    public Optional<Role> findByName(RoleName name) {
+        return Optional.ofNullable(snapshot.byName.get(name));
+    }
+
+    /**
+     * Возвращает все роли.
+     * 
+     * @return неизменяемый список ролей
+     */
+    public List<Role> findAll() {
+        return snapshot.roles;
+    }
+
+    /**
+     * Возвращает право для роли с заданным id.
+     * 
+     * @param roleId идентификатор роли
+     * @return право вида ROLE_USER или null, если роль неизвестна
+     */
+    public GrantedAuthority authority(Long roleId) {
+        return snapshot.authoritiesById.get(roleId);
+    }
+
+    /**
+     * Возвращает общий экземпляр права по его имени (например, из claims JWT токена).
+     * 
+     * @param authority имя права, например ROLE_ADMIN
+     * @return общий экземпляр для известных ролей, иначе новый объект
+     */
+    public GrantedAuthority authority(String authority) {
+        GrantedAuthority known = AUTHORITIES_BY_NAME.get(authority);
+        return known != null ? known : new SimpleGrantedAuthority(authority);
+    }
+
+    private static String authorityName(RoleName name) {
+        return "ROLE_" + name.name();
+    }
+
+    /**
+     * Неизменяемый снимок таблицы ролей; заменяется целиком при обновлении.
+     */
+    private static final class Snapshot {
+        private final List<Role> roles;
+        private final Map<RoleName, Role> byName = new EnumMap<>(RoleName.class);
+        private final Map<Long, GrantedAuthority> authoritiesById = new HashMap<>();
+
+        private Snapshot(Collection<Role> roles) {
+            this.roles = List.copyOf(roles);
+            for (Role role : roles) {
+                byName.put(role.getName(), role);
+                authoritiesById.put(role.getId(), AUTHORITIES_BY_NAME.get(authorityName(role.getName())));
+            }
+        }
+    }
+}
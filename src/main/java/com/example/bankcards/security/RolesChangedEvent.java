@@ -0,0 +1,11 @@
+package com.example.bankcards.security;
+
+/**
+ * Событие об изменении таблицы ролей. После коммита транзакции,
+ * в которой оно опубликовано, {@link RoleRegistry} перечитывает роли.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class RolesChangedEvent {
+}
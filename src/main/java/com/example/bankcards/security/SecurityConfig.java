@@ -1,5 +1,6 @@
 package com.example.bankcards.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -42,6 +43,9 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Асинхронное завершение запроса (выгрузка карт, Mono/Flux) уже прошло
+                // авторизацию при исходном запросе, а JWT фильтр на нем не выполняется
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.GET,
                     "/swagger-ui/**",
                     "/swagger-ui.html",
@@ -50,8 +54,8 @@ public class SecurityConfig {
                     "/webjars/**"
                 ).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/users/**").hasRole("ADMIN")
-                .requestMatchers("/api/cards/**", "/api/transfers/**").hasAnyRole("USER", "ADMIN")
+                .requestMatchers("/api/users/**", "/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/cards/**", "/api/transfers/**", "/api/reactive/**").hasAnyRole("USER", "ADMIN")
                 .anyRequest().authenticated()
             );
 
@@ -0,0 +1,129 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import com.example.bankcards.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Список отзыва JWT токенов для режима авторизации без обращения к базе данных.
+ * Отзыв увеличивает версию токенов пользователя в таблице token_revocations,
+ * токен с claim {@code tv} меньше текущей версии недействителен. Проверка запроса
+ * читает только копию версий в памяти: узел, выполнивший отзыв, обновляет ее после коммита,
+ * остальные узлы подхватывают новые отзывы опросом таблицы раз в
+ * {@code app.jwt.revocation-poll-interval}. Запись в памяти живет не дольше срока
+ * действия токена, после чего токены старых версий истекают сами.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class TokenRevocationList {
+    /**
+     * Запас при опросе: отзыв, закоммиченный позже своего revoked_at,
+     * и расхождение часов узлов не должны выпасть из окна опроса.
+     */
+    static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final Duration tokenTtl;
+    private final boolean statelessAuthorization;
+    private final Cache<Long, Integer> versions;
+    private volatile Instant lastPoll;
+
+    /**
+     * Конструктор с параметрами хранения.
+     * 
+     * @param tokenRevocationRepository репозиторий версий токенов
+     * @param tokenTtlMs срок действия токена в режиме без обращения к базе данных
+     * @param statelessAuthorization включен ли режим авторизации по claims токена
+     */
+    @Autowired
+    public TokenRevocationList(TokenRevocationRepository tokenRevocationRepository,
+                               @Value("${app.jwt.stateless-expiration-ms:900000}") long tokenTtlMs,
+                               @Value("${app.jwt.stateless:false}") boolean statelessAuthorization) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.tokenTtl = Duration.ofMillis(tokenTtlMs);
+        this.statelessAuthorization = statelessAuthorization;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(tokenTtl)
+                .build();
+    }
+
+    /**
+     * Загружает отзывы, токены до которых еще могут быть действительны.
+     */
+    @PostConstruct
+    public void init() {
+        if (statelessAuthorization) {
+            Instant now = Instant.now();
+            merge(now.minus(tokenTtl));
+            lastPoll = now;
+        }
+    }
+
+    /**
+     * Отзывает все ранее выданные токены пользователя.
+     * Версия увеличивается в текущей транзакции, копия в памяти обновляется после коммита.
+     * 
+     * @param userId идентификатор пользователя
+     */
+    public void revoke(Long userId) {
+        int version = tokenRevocationRepository.incrementVersion(userId, Instant.now());
+        TransactionUtils.afterCommit(() -> remember(userId, version));
+    }
+
+    /**
+     * Возвращает текущую версию токенов пользователя для выдачи нового токена.
+     * 
+     * @param userId идентификатор пользователя
+     * @return версия токенов, 0 если токены пользователя не отзывались
+     */
+    public int currentVersion(Long userId) {
+        return tokenRevocationRepository.findVersion(userId).orElse(0);
+    }
+
+    /**
+     * Проверяет, отозван ли токен пользователя.
+     * 
+     * @param userId идентификатор пользователя из токена
+     * @param tokenVersion версия из токена, 0 для токенов без claim {@code tv}
+     * @return true, если после выдачи токена версия увеличилась
+     */
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        Integer current = versions.getIfPresent(userId);
+        return current != null && tokenVersion < current;
+    }
+
+    /**
+     * Подхватывает отзывы, выполненные на других узлах.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-poll-interval:PT5S}")
+    public void pollRevocations() {
+        if (!statelessAuthorization) {
+            return;
+        }
+        Instant now = Instant.now();
+        merge(lastPoll.minus(POLL_OVERLAP));
+        lastPoll = now;
+    }
+
+    private void merge(Instant since) {
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtAfter(since)) {
+            remember(revocation.getUserId(), revocation.getTokenVersion());
+        }
+    }
+
+    private void remember(Long userId, int version) {
+        versions.asMap().merge(userId, version, Math::max);
+    }
+}
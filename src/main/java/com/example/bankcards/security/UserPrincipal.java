@@ -0,0 +1,51 @@
+package com.example.bankcards.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Аутентифицированный пользователь с идентификатором из базы данных.
+ * Позволяет контроллерам и сервисам получать id владельца без повторного
+ * поиска пользователя по имени.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public class UserPrincipal extends User {
+    /** Идентификатор пользователя */
+    private final Long id;
+
+    /**
+     * Конструктор со всеми полями.
+     * 
+     * @param id идентификатор пользователя
+     * @param username имя пользователя
+     * @param password хешированный пароль (пустая строка, если пользователь восстановлен из JWT)
+     * @param authorities права пользователя
+     */
+    public UserPrincipal(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    /**
+     * Получает идентификатор пользователя.
+     * 
+     * @return идентификатор пользователя
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Создает независимую копию, у которой можно стереть пароль,
+     * не затрагивая исходный экземпляр.
+     * 
+     * @return копия пользователя
+     */
+    public UserPrincipal copy() {
+        return new UserPrincipal(id, getUsername(), getPassword(), getAuthorities());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.EncryptedCardNumber;
+import com.example.bankcards.util.CardEncryptionUtil;
+import com.example.bankcards.util.CardHashUtil;
+import com.example.bankcards.util.PanBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Фоновое заполнение колонок last4 и pan_hash для карт, созданных до их появления.
+ * Карты обрабатываются порциями в отдельных коротких транзакциях в порядке возрастания id;
+ * когда незаполненных строк не остается, запуск сводится к одному пустому запросу.
+ *
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class CardBackfillJob {
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter backfilled;
+    private final Counter failed;
+    private final Counter duplicates;
+
+    /** Число карт, обрабатываемых в одной транзакции */
+    @Value("${app.card.backfill.chunk-size:500}")
+    private int chunkSize = 500;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param cardRepository репозиторий карт
+     * @param transactionTemplate шаблон транзакции для одной порции
+     * @param meterRegistry реестр метрик
+     */
+    @Autowired
+    public CardBackfillJob(CardRepository cardRepository, TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.backfilled = meterRegistry.counter("bank.card.backfill", "result", "updated");
+        this.failed = meterRegistry.counter("bank.card.backfill", "result", "failed");
+        this.duplicates = meterRegistry.counter("bank.card.backfill", "result", "duplicate");
+    }
+
+    /**
+     * Заполняет last4 и pan_hash у всех карт, где они еще пустые.
+     */
+    @Scheduled(initialDelayString = "${app.card.backfill.initial-delay:PT1M}",
+            fixedDelayString = "${app.card.backfill.interval:PT1H}")
+    public void backfill() {
+        Long lastId = 0L;
+        while (lastId != null) {
+            long afterId = lastId;
+            lastId = transactionTemplate.execute(status -> backfillChunk(afterId));
+        }
+    }
+
+    /**
+     * Обрабатывает одну порцию карт.
+     *
+     * @param afterId id последней карты предыдущей порции
+     * @return id последней карты порции или null, если карт не осталось
+     */
+    private Long backfillChunk(long afterId) {
+        List<EncryptedCardNumber> cards = cardRepository.findNotBackfilled(afterId, PageRequest.of(0, chunkSize));
+        if (cards.isEmpty()) {
+            return null;
+        }
+        for (EncryptedCardNumber card : cards) {
+            String last4;
+            String panHash;
+            try (PanBuffer pan = CardEncryptionUtil.decryptToBuffer(card.getCardNumber())) {
+                last4 = pan.last4();
+                panHash = CardHashUtil.hash(pan);
+            } catch (RuntimeException e) {
+                // Строка остается без last4 и показывается через расшифровку;
+                // признак backfill_failed исключает ее из следующих запусков
+                if (cardRepository.markBackfillFailed(card.getId()) == 1) {
+                    failed.increment();
+                }
+                continue;
+            }
+            // Тот же номер уже заведен на другой карте: уникальный индекс не даст записать hash,
+            // строка помечается конфликтом и в следующие запуски не выбирается
+            boolean conflict = cardRepository.existsByPanHash(panHash);
+            if (cardRepository.updateBackfilledColumns(card.getId(), last4, conflict ? null : panHash, conflict) == 1) {
+                (conflict ? duplicates : backfilled).increment();
+            }
+        }
+        return cards.get(cards.size() - 1).getId();
+    }
+}
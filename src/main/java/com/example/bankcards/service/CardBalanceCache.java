@@ -0,0 +1,81 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBalance;
+import com.example.bankcards.util.CacheUtils;
+import com.example.bankcards.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Кэш балансов и владельцев карт для GET /api/cards/{id}/balance.
+ * Запись загружается при промахе и сбрасывается после коммита каждой транзакции,
+ * изменившей карту; время жизни записи ограничивает устаревание при изменениях в обход сервиса.
+ * <p>
+ * Сброс, пришедший во время загрузки, удаляет ожидаемое значение, и загруженный
+ * баланс в кэш не попадает, поэтому баланс, прочитанный до коммита перевода,
+ * не может остаться в кэше после него.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class CardBalanceCache {
+    private final AsyncCache<Long, CardBalance> cache;
+
+    /**
+     * Конструктор с параметрами кэша.
+     * 
+     * @param meterRegistry реестр метрик попаданий, промахов и вытеснений кэша
+     * @param maxSize максимальное число карт в кэше
+     * @param ttl время жизни записи
+     */
+    public CardBalanceCache(MeterRegistry meterRegistry,
+                            @Value("${app.card.balance-cache.max-size:100000}") long maxSize,
+                            @Value("${app.card.balance-cache.ttl:PT1M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "card-balances");
+    }
+
+    /**
+     * Возвращает баланс карты из кэша, загружая его при отсутствии.
+     * 
+     * @param cardId идентификатор карты
+     * @param loader загрузчик баланса из базы данных; возвращает null, если карты нет
+     * @return баланс карты или null, если карта не найдена (отсутствие не кэшируется)
+     */
+    public CardBalance get(Long cardId, Function<Long, CardBalance> loader) {
+        return CacheUtils.getOrLoad(cache, cardId, loader);
+    }
+
+    /**
+     * Сбрасывает карты из кэша после коммита текущей транзакции или сразу, если транзакции нет.
+     * 
+     * @param cardIds идентификаторы измененных карт
+     */
+    public void evictAfterCommit(Long... cardIds) {
+        evictAfterCommit(List.of(cardIds));
+    }
+
+    /**
+     * Сбрасывает карты из кэша после коммита текущей транзакции или сразу, если транзакции нет.
+     * 
+     * @param cardIds идентификаторы измененных карт
+     */
+    public void evictAfterCommit(Collection<Long> cardIds) {
+        List<Long> ids = List.copyOf(cardIds);
+        TransactionUtils.afterCommit(() -> cache.synchronous().invalidateAll(ids));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Перевод карт с истекшим сроком действия в статус EXPIRED.
+ * Карты обновляются на стороне базы данных порциями условного UPDATE без загрузки сущностей,
+ * каждая порция в своей короткой транзакции. Обход выполняет один экземпляр приложения:
+ * на время обхода удерживается advisory lock PostgreSQL на отдельном соединении,
+ * остальные экземпляры пропускают запуск.
+ *
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class CardExpiryJob {
+    /** Ключ advisory lock обхода */
+    static final long LOCK_KEY = 0x6361726445787069L;
+
+    private final CardRepository cardRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CardBalanceCache balanceCache;
+    private final Counter expired;
+    private final Counter skipped;
+
+    /** Число карт, обновляемых в одной транзакции */
+    @Value("${app.card.expiry.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param cardRepository репозиторий карт
+     * @param jdbcTemplate шаблон JDBC для advisory lock
+     * @param transactionTemplate шаблон транзакции для одной порции
+     * @param balanceCache кэш балансов карт
+     * @param meterRegistry реестр метрик
+     */
+    @Autowired
+    public CardExpiryJob(CardRepository cardRepository, JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate, CardBalanceCache balanceCache,
+                         MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.balanceCache = balanceCache;
+        this.expired = meterRegistry.counter("bank.card.expiry", "result", "expired");
+        this.skipped = meterRegistry.counter("bank.card.expiry", "result", "locked");
+    }
+
+    /**
+     * Переводит в EXPIRED все карты со сроком действия раньше текущей даты.
+     */
+    @Scheduled(cron = "${app.card.expiry.cron:0 5 0 * * *}")
+    public void expireCards() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!callLockFunction(connection, "SELECT pg_try_advisory_lock(?)")) {
+                // Обход уже выполняет другой экземпляр
+                skipped.increment();
+                return null;
+            }
+            try {
+                LocalDate today = LocalDate.now();
+                int updated;
+                do {
+                    updated = transactionTemplate.execute(status -> expireChunk(today));
+                    expired.increment(updated);
+                } while (updated == chunkSize);
+            } finally {
+                callLockFunction(connection, "SELECT pg_advisory_unlock(?)");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Обновляет одну порцию карт.
+     *
+     * @param today текущая дата
+     * @return число карт, переведенных в EXPIRED
+     */
+    private int expireChunk(LocalDate today) {
+        List<Long> ids = cardRepository.expireBefore(today, chunkSize);
+        balanceCache.evictAfterCommit(ids);
+        return ids.size();
+    }
+
+    private static boolean callLockFunction(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
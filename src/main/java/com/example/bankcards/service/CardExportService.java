@@ -0,0 +1,22 @@
+package com.example.bankcards.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Сервис выгрузки карт для сверки и отчетов.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public interface CardExportService {
+    /**
+     * Записывает все карты в формате NDJSON (по одному CardDto в строке) в порядке id.
+     * Карты читаются из базы данных потоком, память не зависит от числа карт.
+     * 
+     * @param out поток, в который пишется выгрузка; не закрывается
+     * @return число выгруженных карт
+     * @throws IOException если запись в поток не удалась
+     */
+    long exportNdjson(OutputStream out) throws IOException;
+}
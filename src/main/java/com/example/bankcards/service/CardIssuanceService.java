@@ -0,0 +1,45 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkIssuanceStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Сервис массового выпуска карт из выгрузки CSV или NDJSON.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public interface CardIssuanceService {
+    /**
+     * Формат выгрузки.
+     * CSV: строки {@code cardNumber,expiryDate,initialBalance}, строка заголовка необязательна.
+     * NDJSON: по одному объекту {@link com.example.bankcards.dto.CreateCardRequest} в строке.
+     */
+    enum Format { CSV, NDJSON }
+
+    /**
+     * Принимает выгрузку и запускает выпуск карт в фоне.
+     * Выгрузка сохраняется во временный файл, поэтому выпуск не зависит от соединения клиента.
+     * 
+     * @param in выгрузка карт; читается до конца и не закрывается
+     * @param format формат выгрузки
+     * @param ownerId ID владельца всех карт выгрузки
+     * @return состояние созданного задания
+     * @throws IOException если выгрузку не удалось сохранить
+     * @throws IllegalArgumentException если владелец не найден
+     * @throws com.example.bankcards.exception.BulkIssuanceRejectedException если заняты все места
+     *         для выполняемых и ожидающих заданий
+     */
+    BulkIssuanceStatus startIssuance(InputStream in, Format format, Long ownerId) throws IOException;
+
+    /**
+     * Получает состояние задания выпуска.
+     * 
+     * @param jobId идентификатор задания
+     * @return состояние задания или пустой Optional, если задание неизвестно или устарело
+     */
+    Optional<BulkIssuanceStatus> getStatus(String jobId);
+}
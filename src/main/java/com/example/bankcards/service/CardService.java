@@ -3,10 +3,15 @@ package com.example.bankcards.service;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardTransactionDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.dto.TransferResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -74,24 +79,63 @@ public interface CardService {
     /**
      * Получает список карт пользователя с пагинацией.
      * 
-     * @param owner владелец карт
+     * @param ownerId идентификатор владельца карт
      * @param pageable параметры пагинации
      * @return страница с картами пользователя
      */
-    Page<CardDto> listCards(User owner, Pageable pageable);
+    Page<CardDto> listCards(Long ownerId, Pageable pageable);
+
+    /**
+     * Получает страницу карт пользователя по курсору в порядке возрастания id.
+     * Время выборки не зависит от номера страницы.
+     * 
+     * @param ownerId идентификатор владельца карт
+     * @param after курсор предыдущей страницы или null для первой страницы
+     * @param limit размер страницы (от 1 до 1000)
+     * @param withCount подсчитать общее число карт владельца
+     * @return страница карт с курсором следующей страницы
+     * @throws IllegalArgumentException если курсор или размер страницы некорректны
+     */
+    CursorPage<CardDto> listCards(Long ownerId, String after, int limit, boolean withCount);
+
+    /**
+     * Получает страницу журнала движений по карте, от новых записей к старым.
+     * 
+     * @param cardId идентификатор карты
+     * @param user пользователь, запрашивающий журнал
+     * @param after курсор предыдущей страницы или null для первой страницы
+     * @param limit размер страницы (от 1 до 1000)
+     * @return страница записей журнала с курсором следующей страницы
+     * @throws IllegalArgumentException если пользователь не владеет картой или курсор некорректен
+     */
+    CursorPage<CardTransactionDto> listTransactions(Long cardId, User user, String after, int limit);
     
     /**
      * Переводит средства между картами одного пользователя.
+     * Вызванный внутри транзакции, перевод выполняется в ней; стратегия OPTIMISTIC
+     * в этом случае не повторяет попытку при конфликте.
      * 
      * @param fromCardId идентификатор карты-отправителя
      * @param toCardId идентификатор карты-получателя
      * @param amount сумма перевода
      * @param user пользователь, владеющий обеими картами
-     * @throws IllegalArgumentException если пользователь не владеет обеими картами
+     * @throws IllegalArgumentException если сумма не положительна или пользователь не владеет обеими картами
      * @throws InsufficientFundsException если недостаточно средств на карте-отправителе
+     * @throws TransferConflictException если перевод OPTIMISTIC не удался из-за конкурирующих изменений
      */
     void transferBetweenCards(Long fromCardId, Long toCardId, BigDecimal amount, User user);
     
+    /**
+     * Выполняет пакет переводов между картами одного пользователя в одной транзакции.
+     * Все карты пакета блокируются одним запросом в порядке возрастания id,
+     * переводы применяются по очереди, отклоненный перевод не прерывает пакет.
+     * 
+     * @param transfers переводы пакета
+     * @param user пользователь, владеющий картами
+     * @return результаты переводов в порядке следования в пакете (индексы с нуля)
+     */
+    List<TransferResult> transferBatch(List<TransferRequest> transfers, User user);
+    
     /**
      * Получает баланс карты.
      * 
@@ -0,0 +1,32 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.IdempotentResponse;
+import java.util.function.IntSupplier;
+
+/**
+ * Сервис идемпотентного выполнения запросов по заголовку Idempotency-Key.
+ * Гарантирует, что действие выполняется не более одного раза для ключа,
+ * а повторные запросы получают сохраненный ответ.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public interface IdempotencyService {
+    /**
+     * Выполняет действие, если ключ еще не использовался, иначе возвращает сохраненный ответ.
+     * Действие выполняется в одной транзакции с отметкой о выполнении ключа: транзакции,
+     * открытые действием, присоединяются к ней. Если действие завершилось исключением,
+     * транзакция откатывается, ключ освобождается и запрос можно повторить.
+     * Ключ привязывается к параметрам запроса: повтор с тем же ключом и другими параметрами отклоняется.
+     * 
+     * @param username имя пользователя, в пределах которого уникален ключ
+     * @param key ключ идемпотентности из заголовка запроса
+     * @param fingerprint строка, однозначно описывающая параметры запроса
+     * @param action действие, возвращающее HTTP статус ответа
+     * @return HTTP статус ответа и признак повторного запроса
+     * @throws IllegalArgumentException если ключ пустой или слишком длинный
+     * @throws IdempotencyConflictException если запрос с этим ключом еще выполняется
+     * @throws IdempotencyKeyMismatchException если ключ уже использован с другими параметрами
+     */
+    IdempotentResponse execute(String username, String key, String fingerprint, IntSupplier action);
+}
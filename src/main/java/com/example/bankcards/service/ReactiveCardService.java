@@ -0,0 +1,39 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Неблокирующий сервис чтения карт поверх R2DBC.
+ * Повторяет семантику {@link CardService#getBalance} и {@link CardService#listCards}
+ * для реактивного API /api/reactive.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public interface ReactiveCardService {
+    /**
+     * Получает баланс карты.
+     * 
+     * @param cardId идентификатор карты
+     * @param userId идентификатор пользователя, запрашивающего баланс
+     * @return баланс карты; ошибка NoSuchElementException, если карты нет,
+     *         и IllegalArgumentException, если пользователь не владеет картой
+     */
+    Mono<BigDecimal> getBalance(Long cardId, Long userId);
+
+    /**
+     * Получает карты владельца в порядке возрастания id.
+     * Карты читаются из базы данных по мере того, как клиент успевает их принимать.
+     * 
+     * @param ownerId идентификатор владельца
+     * @param after курсор: id последней полученной карты или null для начала списка
+     * @param limit максимальное число карт или null для всех карт
+     * @return поток карт
+     * @throws IllegalArgumentException если курсор или лимит некорректны
+     */
+    Flux<CardDto> listCards(Long ownerId, String after, Integer limit);
+}
@@ -0,0 +1,17 @@
+package com.example.bankcards.service;
+
+/**
+ * Стратегия согласования конкурентных переводов между картами.
+ * Выбирается для развертывания свойством {@code app.transfer.strategy}.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+public enum TransferStrategy {
+    /** Блокировка строк карт (SELECT ... FOR UPDATE) в порядке возрастания id */
+    PESSIMISTIC,
+    /** Проверка версии карты (@Version) с ограниченным числом повторов при конфликте */
+    OPTIMISTIC,
+    /** Условные UPDATE списания и зачисления без предварительного чтения карт */
+    ATOMIC
+}
@@ -1,6 +1,7 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.entity.User;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -63,4 +64,16 @@ public interface UserService {
      * @return страница с пользователями
      */
     Page<com.example.bankcards.dto.UserDto> listUsers(Pageable pageable);
+
+    /**
+     * Получает страницу пользователей по курсору в порядке возрастания id.
+     * Время выборки не зависит от номера страницы.
+     * 
+     * @param after курсор предыдущей страницы или null для первой страницы
+     * @param limit размер страницы (от 1 до 1000)
+     * @param withCount подсчитать общее число пользователей
+     * @return страница пользователей с курсором следующей страницы
+     * @throws IllegalArgumentException если курсор или размер страницы некорректны
+     */
+    CursorPage<UserDto> listUsers(String after, int limit, boolean withCount);
 } 
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.CardExportService;
+import com.example.bankcards.util.CardMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Реализация сервиса выгрузки карт.
+ * Карты читаются курсором в одной транзакции только для чтения; контекст персистентности
+ * периодически очищается, поэтому прочитанные строки не накапливаются в памяти.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Service
+public class CardExportServiceImpl implements CardExportService {
+    private final CardRepository cardRepository;
+    private final ObjectWriter writer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Число карт, после которого очищается контекст персистентности */
+    @Value("${app.card.export.clear-interval:1000}")
+    private int clearInterval = 1000;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     * 
+     * @param cardRepository репозиторий карт
+     * @param objectMapper JSON сериализатор приложения
+     */
+    @Autowired
+    public CardExportServiceImpl(CardRepository cardRepository, ObjectMapper objectMapper) {
+        this.cardRepository = cardRepository;
+        // Поток сбрасывается буфером генератора, а не после каждой строки
+        this.writer = objectMapper.writerFor(CardDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Card> cards = cardRepository.streamAllWithOwner();
+             JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Строки разделяются переводом строки вместо пробела по умолчанию
+            generator.setRootValueSeparator(null);
+            Iterator<Card> iterator = cards.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, CardMapper.toDto(iterator.next()));
+                generator.writeRaw('\n');
+                if (++count % clearInterval == 0) {
+                    entityManager.clear();
+                }
+            }
+            generator.flush();
+        }
+        return count;
+    }
+}
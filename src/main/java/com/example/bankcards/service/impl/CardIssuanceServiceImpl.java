@@ -0,0 +1,586 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.BulkIssuanceStatus;
+import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardTransaction;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.BulkIssuanceRejectedException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CardIssuanceService;
+import com.example.bankcards.util.CardEncryptionUtil;
+import com.example.bankcards.util.CardHashUtil;
+import com.example.bankcards.util.CardMaskUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Реализация сервиса массового выпуска карт.
+ * Задание читает сохраненную выгрузку и делит строки на порции. Порции разбираются,
+ * шифруются и вставляются на ограниченном пуле потоков, каждая в своей транзакции:
+ * карты и записи журнала уходят пакетными INSERT с id из последовательностей.
+ * Число порций в работе ограничено, поэтому чтение файла ждет освобождения потоков
+ * и память не зависит от размера выгрузки.
+ * Выгрузка сохраняется в каталог app.card.bulk.spool-dir зашифрованной (AES/CTR) ключом,
+ * который живет только в памяти задания; файлы, оставшиеся после остановки приложения,
+ * прочитать нельзя, и они удаляются при старте. Каталог не должен быть общим
+ * для нескольких экземпляров приложения.
+ * Число принятых заданий (выполняемых и ожидающих) ограничено до сохранения выгрузки;
+ * сверх него задание отклоняется. Состояние заданий хранится в памяти экземпляра приложения
+ * и удаляется по расписанию через app.card.bulk.job-ttl после завершения.
+ *
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Service
+public class CardIssuanceServiceImpl implements CardIssuanceService, DisposableBean {
+    private static final Pattern CARD_NUMBER = Pattern.compile("\\d{16}");
+    private static final String CSV_HEADER = "cardNumber";
+    private static final String SPOOL_PREFIX = "card-bulk-";
+    private static final String SPOOL_SUFFIX = ".upload";
+    private static final String SPOOL_TRANSFORMATION = "AES/CTR/NoPadding";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final CardRepository cardRepository;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader requestReader;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService workerExecutor;
+    private final int maxChunksInFlight;
+    /** Места для выполняемых и ожидающих заданий; занимаются до сохранения выгрузки */
+    private final Semaphore jobSlots;
+    private final Counter issuedCounter;
+    private final Counter failedCounter;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /** Число строк выгрузки, вставляемых в одной транзакции */
+    @Value("${app.card.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /** Число ошибок, сохраняемых в состоянии задания */
+    @Value("${app.card.bulk.max-errors:100}")
+    private int maxErrors = 100;
+
+    /** Время хранения состояния завершенного задания */
+    @Value("${app.card.bulk.job-ttl:PT24H}")
+    private Duration jobTtl = Duration.ofHours(24);
+
+    /** Каталог зашифрованных копий выгрузок */
+    @Value("${app.card.bulk.spool-dir:${java.io.tmpdir}/card-bulk-spool}")
+    private String spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "card-bulk-spool").toString();
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     *
+     * @param cardRepository репозиторий карт
+     * @param cardTransactionRepository журнал операций по картам
+     * @param userRepository репозиторий пользователей
+     * @param transactionTemplate шаблон транзакции для одной порции
+     * @param objectMapper JSON десериализатор строк NDJSON
+     * @param meterRegistry реестр метрик
+     * @param workers число потоков шифрования и вставки порций
+     * @param maxConcurrentJobs число одновременно выполняемых заданий
+     * @param maxQueuedJobs число заданий, ожидающих выполнения
+     */
+    @Autowired
+    public CardIssuanceServiceImpl(CardRepository cardRepository,
+                                   CardTransactionRepository cardTransactionRepository,
+                                   UserRepository userRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.card.bulk.workers:4}") int workers,
+                                   @Value("${app.card.bulk.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                   @Value("${app.card.bulk.max-queued-jobs:4}") int maxQueuedJobs) {
+        if (workers <= 0 || maxConcurrentJobs <= 0 || maxQueuedJobs < 0) {
+            throw new IllegalArgumentException("app.card.bulk.workers and app.card.bulk.max-concurrent-jobs must be positive, "
+                    + "app.card.bulk.max-queued-jobs must not be negative");
+        }
+        this.cardRepository = cardRepository;
+        this.cardTransactionRepository = cardTransactionRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.requestReader = objectMapper.readerFor(CreateCardRequest.class);
+        this.jobExecutor = Executors.newFixedThreadPool(maxConcurrentJobs, daemonThreadFactory("card-bulk-job-"));
+        this.workerExecutor = Executors.newFixedThreadPool(workers, daemonThreadFactory("card-bulk-worker-"));
+        // Пока одна порция вставляется, следующая уже ждет в очереди
+        this.maxChunksInFlight = workers * 2;
+        this.jobSlots = new Semaphore(maxConcurrentJobs + maxQueuedJobs);
+        this.issuedCounter = meterRegistry.counter("bank.card.bulk", "result", "issued");
+        this.failedCounter = meterRegistry.counter("bank.card.bulk", "result", "failed");
+    }
+
+    /**
+     * Проверяет настройки и удаляет выгрузки, оставшиеся от прошлого запуска.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("app.card.bulk.chunk-size must be positive");
+        }
+        deleteLeftoverSpools();
+    }
+
+    /**
+     * Удаляет выгрузки, оставшиеся от прошлого запуска: их ключи потеряны вместе с заданиями.
+     */
+    public void deleteLeftoverSpools() throws IOException {
+        Path dir = Path.of(spoolDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SPOOL_PREFIX + "*" + SPOOL_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkIssuanceStatus startIssuance(InputStream in, Format format, Long ownerId) throws IOException {
+        if (ownerId == null || !userRepository.existsById(ownerId)) {
+            throw new IllegalArgumentException("Owner not found");
+        }
+        if (!jobSlots.tryAcquire()) {
+            throw new BulkIssuanceRejectedException("Too many bulk issuance jobs, retry later");
+        }
+        Spool spool = null;
+        Job job = null;
+        try {
+            spool = Spool.create(spoolDirectory());
+            try (OutputStream out = spool.openOutput()) {
+                in.transferTo(out);
+            }
+            job = new Job(UUID.randomUUID().toString(), ownerId, format, Instant.now());
+            jobs.put(job.id, job);
+            Job acceptedJob = job;
+            Spool acceptedSpool = spool;
+            jobExecutor.execute(() -> runJob(acceptedJob, acceptedSpool));
+        } catch (IOException | RuntimeException e) {
+            // Задание не запущено: место и копия выгрузки освобождаются сразу
+            if (job != null) {
+                jobs.remove(job.id);
+            }
+            if (spool != null) {
+                spool.delete();
+            }
+            jobSlots.release();
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<BulkIssuanceStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::snapshot);
+    }
+
+    /**
+     * Останавливает потоки заданий при остановке приложения.
+     * Порции, которые не успели начаться, отбрасываются и возвращают свои места в очереди,
+     * чтобы прерванное задание не ждало их завершения.
+     */
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        for (Runnable task : workerExecutor.shutdownNow()) {
+            if (task instanceof ChunkTask chunkTask) {
+                chunkTask.inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Удаляет состояние заданий, завершившихся раньше app.card.bulk.job-ttl.
+     */
+    @Scheduled(fixedDelayString = "${app.card.bulk.cleanup-interval:PT1H}")
+    public void purgeFinishedJobs() {
+        Instant threshold = Instant.now().minus(jobTtl);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    private Path spoolDirectory() throws IOException {
+        Path dir = Path.of(spoolDir);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString("rwx------")));
+        }
+        return Files.createDirectories(dir);
+    }
+
+    private void runJob(Job job, Spool spool) {
+        job.status = "RUNNING";
+        Semaphore inFlight = new Semaphore(maxChunksInFlight);
+        boolean completed = false;
+        try (BufferedReader reader = spool.openReader()) {
+            List<Line> chunk = new ArrayList<>(chunkSize);
+            String text;
+            long number = 0;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (text.isBlank() || (number == 1 && job.format == Format.CSV && text.startsWith(CSV_HEADER))) {
+                    continue;
+                }
+                job.rowsRead.incrementAndGet();
+                chunk.add(new Line(number, text));
+                if (chunk.size() == chunkSize) {
+                    submitChunk(job, chunk, inFlight);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(job, chunk, inFlight);
+            }
+            completed = true;
+        } catch (IOException | RuntimeException e) {
+            job.addError("Upload aborted: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.addError("Upload aborted: interrupted");
+        } finally {
+            // Задание завершается после всех отправленных порций; при остановке приложения не ждет их
+            try {
+                inFlight.acquire(maxChunksInFlight);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                completed = false;
+            }
+            spool.delete();
+            // Место освобождается до публикации finishedAt: увидевший завершение клиент может сразу начать новое задание
+            jobSlots.release();
+            job.status = completed ? "COMPLETED" : "FAILED";
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    private void submitChunk(Job job, List<Line> chunk, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            workerExecutor.execute(new ChunkTask(job, chunk, inFlight));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Разбирает и шифрует порцию строк, затем вставляет карты одной транзакцией.
+     * Ошибка вставки откатывает порцию целиком, остальные порции задания продолжаются.
+     */
+    private void issueChunk(Job job, List<Line> chunk) {
+        List<Card> cards = new ArrayList<>(chunk.size());
+        List<Line> cardLines = new ArrayList<>(chunk.size());
+        Set<String> panHashes = new HashSet<>();
+        for (Line line : chunk) {
+            try {
+                CreateCardRequest request = parse(job.format, line.text);
+                validate(request);
+                String panHash = CardHashUtil.hash(request.getCardNumber());
+                if (!panHashes.add(panHash)) {
+                    throw new IllegalArgumentException("Duplicate card number in upload");
+                }
+                Card card = new Card();
+                card.setCardNumber(CardEncryptionUtil.encrypt(request.getCardNumber()));
+                card.setLast4(CardMaskUtil.last4(request.getCardNumber()));
+                card.setPanHash(panHash);
+                card.setExpiryDate(request.getExpiryDate());
+                card.setStatus(Card.Status.ACTIVE);
+                card.setBalance(request.getInitialBalance());
+                cards.add(card);
+                cardLines.add(line);
+            } catch (RuntimeException e) {
+                job.fail(line.number, e.getMessage());
+            }
+        }
+        if (cards.isEmpty()) {
+            return;
+        }
+        Set<String> existing;
+        try {
+            existing = transactionTemplate.execute(status -> insertCards(job.ownerId, cards));
+        } catch (RuntimeException e) {
+            for (Line line : cardLines) {
+                job.fail(line.number, null);
+            }
+            job.addError("Lines " + cardLines.get(0).number + "-" + cardLines.get(cardLines.size() - 1).number
+                    + " rolled back: " + e.getMessage());
+            return;
+        }
+        long issued = cards.size();
+        for (int i = 0; i < cards.size(); i++) {
+            if (existing.contains(cards.get(i).getPanHash())) {
+                job.fail(cardLines.get(i).number, "Card with this number already exists");
+                issued--;
+            }
+        }
+        job.issued.addAndGet(issued);
+        issuedCounter.increment(issued);
+    }
+
+    /**
+     * Вставляет карты порции, кроме уже заведенных номеров, и записи журнала о начальном балансе.
+     *
+     * @return HMAC номеров, которые уже были заведены
+     */
+    private Set<String> insertCards(Long ownerId, List<Card> cards) {
+        List<String> panHashes = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            panHashes.add(card.getPanHash());
+        }
+        Set<String> existing = new HashSet<>(cardRepository.findExistingPanHashes(panHashes));
+        User owner = userRepository.getReferenceById(ownerId);
+        List<Card> newCards = new ArrayList<>(cards.size());
+        for (Card card : cards) {
+            if (!existing.contains(card.getPanHash())) {
+                card.setOwner(owner);
+                newCards.add(card);
+            }
+        }
+        cardRepository.saveAll(newCards);
+        List<CardTransaction> journal = new ArrayList<>(newCards.size());
+        for (Card card : newCards) {
+            if (card.getBalance().signum() != 0) {
+                journal.add(new CardTransaction(card.getId(), null, CardTransaction.Type.ADJUSTMENT, card.getBalance()));
+            }
+        }
+        cardTransactionRepository.saveAll(journal);
+        return existing;
+    }
+
+    private CreateCardRequest parse(Format format, String text) {
+        if (format == Format.NDJSON) {
+            try {
+                return requestReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        String[] fields = text.split(",", -1);
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Expected cardNumber,expiryDate,initialBalance");
+        }
+        return new CreateCardRequest(fields[0].trim(), LocalDate.parse(fields[1].trim()),
+                new BigDecimal(fields[2].trim()));
+    }
+
+    private static void validate(CreateCardRequest request) {
+        if (request.getCardNumber() == null || !CARD_NUMBER.matcher(request.getCardNumber()).matches()) {
+            throw new IllegalArgumentException("Card number must be 16 digits");
+        }
+        if (request.getExpiryDate() == null) {
+            throw new IllegalArgumentException("Expiry date is required");
+        }
+        if (request.getInitialBalance() == null || request.getInitialBalance().signum() < 0) {
+            throw new IllegalArgumentException("Initial balance must be non-negative");
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * Порция в очереди пула; после выполнения освобождает место в очереди задания.
+     */
+    private final class ChunkTask implements Runnable {
+        private final Job job;
+        private final List<Line> chunk;
+        private final Semaphore inFlight;
+
+        private ChunkTask(Job job, List<Line> chunk, Semaphore inFlight) {
+            this.job = job;
+            this.chunk = chunk;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public void run() {
+            try {
+                issueChunk(job, chunk);
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Зашифрованная копия выгрузки. Ключ и вектор инициализации создаются для каждого задания
+     * и хранятся только в памяти; режим CTR позволяет читать файл потоком построчно.
+     */
+    private static final class Spool {
+        private final Path file;
+        private final SecretKey key;
+        private final IvParameterSpec iv;
+
+        private Spool(Path file, SecretKey key, IvParameterSpec iv) {
+            this.file = file;
+            this.key = key;
+            this.iv = iv;
+        }
+
+        private static Spool create(Path dir) throws IOException {
+            SecretKey key;
+            try {
+                KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+                keyGenerator.init(256, RANDOM);
+                key = keyGenerator.generateKey();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES is not available", e);
+            }
+            byte[] iv = new byte[16];
+            RANDOM.nextBytes(iv);
+            return new Spool(Files.createTempFile(dir, SPOOL_PREFIX, SPOOL_SUFFIX), key, new IvParameterSpec(iv));
+        }
+
+        private OutputStream openOutput() throws IOException {
+            return new CipherOutputStream(Files.newOutputStream(file), cipher(Cipher.ENCRYPT_MODE));
+        }
+
+        private BufferedReader openReader() throws IOException {
+            InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+            return new BufferedReader(new InputStreamReader(
+                    new CipherInputStream(in, cipher(Cipher.DECRYPT_MODE)), StandardCharsets.UTF_8));
+        }
+
+        private Cipher cipher(int mode) {
+            try {
+                Cipher cipher = Cipher.getInstance(SPOOL_TRANSFORMATION);
+                cipher.init(mode, key, iv);
+                return cipher;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize spool cipher", e);
+            }
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Файл без ключа прочитать нельзя, его удалит следующий запуск
+            }
+        }
+    }
+
+    /**
+     * Строка выгрузки с номером для сообщений об ошибках.
+     */
+    private static final class Line {
+        private final long number;
+        private final String text;
+
+        private Line(long number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Состояние задания; счетчики обновляются потоками порций.
+     */
+    private final class Job {
+        private final String id;
+        private final Long ownerId;
+        private final Format format;
+        private final Instant startedAt;
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong issued = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+        private volatile String status = "QUEUED";
+        private volatile Instant finishedAt;
+
+        private Job(String id, Long ownerId, Format format, Instant startedAt) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.format = format;
+            this.startedAt = startedAt;
+        }
+
+        private void fail(long lineNumber, String error) {
+            failed.incrementAndGet();
+            failedCounter.increment();
+            if (error != null) {
+                addError("Line " + lineNumber + ": " + error);
+            }
+        }
+
+        private void addError(String error) {
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        private BulkIssuanceStatus snapshot() {
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new BulkIssuanceStatus(id, status, ownerId, rowsRead.get(),
+                    issued.get(), failed.get(), errorsCopy, startedAt, finishedAt);
+        }
+    }
+}
@@ -1,24 +1,51 @@
 package com.example.bankcards.service.impl;
 
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardTransaction;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CardBalanceCache;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.TransferStrategy;
+import com.example.bankcards.dto.CardBalance;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardTransactionDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.dto.TransferResult;
 import com.example.bankcards.util.CardEncryptionUtil;
+import com.example.bankcards.util.CardHashUtil;
+import com.example.bankcards.util.CardMaskUtil;
 import com.example.bankcards.util.CardMapper;
+import com.example.bankcards.util.CursorUtil;
 import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.TransferConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Реализация сервиса для работы с банковскими картами.
@@ -32,18 +59,48 @@ import java.util.Optional;
 @Service
 public class CardServiceImpl implements CardService {
     private final CardRepository cardRepository;
+    private final CardTransactionRepository cardTransactionRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CardBalanceCache balanceCache;
+
+    /** Стратегия согласования конкурентных переводов */
+    @Value("${app.transfer.strategy:PESSIMISTIC}")
+    private TransferStrategy transferStrategy = TransferStrategy.PESSIMISTIC;
+
+    /** Максимальное число попыток оптимистического перевода */
+    @Value("${app.transfer.optimistic.max-attempts:5}")
+    private int optimisticMaxAttempts = 5;
+
+    /** Базовая задержка перед повтором оптимистического перевода в миллисекундах */
+    @Value("${app.transfer.optimistic.backoff-ms:10}")
+    private long optimisticBackoffMs = 10;
+
+    /** Верхняя граница задержки перед повтором в миллисекундах */
+    @Value("${app.transfer.optimistic.max-backoff-ms:200}")
+    private long optimisticMaxBackoffMs = 200;
 
     /**
      * Конструктор с внедрением зависимостей.
      * 
      * @param cardRepository репозиторий для работы с картами
+     * @param cardTransactionRepository журнал движений по картам
      * @param userRepository репозиторий для работы с пользователями
+     * @param transactionTemplate шаблон для выполнения попыток перевода в отдельных транзакциях
+     * @param meterRegistry реестр метрик переводов
+     * @param balanceCache кэш балансов карт, сбрасываемый после изменения карт
      */
     @Autowired
-    public CardServiceImpl(CardRepository cardRepository, UserRepository userRepository) {
+    public CardServiceImpl(CardRepository cardRepository, CardTransactionRepository cardTransactionRepository,
+                           UserRepository userRepository, TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry, CardBalanceCache balanceCache) {
         this.cardRepository = cardRepository;
+        this.cardTransactionRepository = cardTransactionRepository;
         this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.balanceCache = balanceCache;
     }
 
     /**
@@ -52,14 +109,21 @@ public class CardServiceImpl implements CardService {
     @Override
     @Transactional
     public CardDto createCard(CreateCardRequest request, User owner) {
+        String panHash = CardHashUtil.hash(request.getCardNumber());
+        if (cardRepository.existsByPanHash(panHash)) {
+            throw new IllegalArgumentException("Card with this number already exists");
+        }
         String encryptedNumber = CardEncryptionUtil.encrypt(request.getCardNumber());
         Card card = new Card();
         card.setCardNumber(encryptedNumber);
+        card.setLast4(CardMaskUtil.last4(request.getCardNumber()));
+        card.setPanHash(panHash);
         card.setOwner(owner);
         card.setExpiryDate(request.getExpiryDate());
         card.setStatus(Card.Status.ACTIVE);
         card.setBalance(request.getInitialBalance());
         Card saved = cardRepository.save(card);
+        journalAdjustment(saved.getId(), saved.getBalance());
         return CardMapper.toDto(saved);
     }
 
@@ -67,8 +131,9 @@ public class CardServiceImpl implements CardService {
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<CardDto> getCardById(Long id) {
-        return cardRepository.findById(id).map(CardMapper::toDto);
+        return cardRepository.findDtoById(id);
     }
 
     /**
@@ -77,8 +142,21 @@ public class CardServiceImpl implements CardService {
     @Override
     @Transactional
     public CardDto updateCard(Long id, Card card) {
-        card.setId(id);
-        return CardMapper.toDto(cardRepository.save(card));
+        // Изменения переносятся на загруженную карту, чтобы не затирать
+        // владельца и версию, которых нет во входных данных
+        Card existing = cardRepository.findById(id).orElseThrow();
+        if (card.getExpiryDate() != null) {
+            existing.setExpiryDate(card.getExpiryDate());
+        }
+        if (card.getStatus() != null) {
+            existing.setStatus(card.getStatus());
+        }
+        if (card.getBalance() != null) {
+            journalAdjustment(id, card.getBalance().subtract(existing.getBalance()));
+            existing.setBalance(card.getBalance());
+        }
+        balanceCache.evictAfterCommit(id);
+        return CardMapper.toDto(cardRepository.save(existing));
     }
 
     /**
@@ -88,6 +166,7 @@ public class CardServiceImpl implements CardService {
     @Transactional
     public void deleteCard(Long id) {
         cardRepository.deleteById(id);
+        balanceCache.evictAfterCommit(id);
     }
 
     /**
@@ -98,6 +177,7 @@ public class CardServiceImpl implements CardService {
     public CardDto blockCard(Long id) {
         Card card = cardRepository.findById(id).orElseThrow();
         card.setStatus(Card.Status.BLOCKED);
+        balanceCache.evictAfterCommit(id);
         return CardMapper.toDto(cardRepository.save(card));
     }
 
@@ -109,6 +189,7 @@ public class CardServiceImpl implements CardService {
     public CardDto activateCard(Long id) {
         Card card = cardRepository.findById(id).orElseThrow();
         card.setStatus(Card.Status.ACTIVE);
+        balanceCache.evictAfterCommit(id);
         return CardMapper.toDto(cardRepository.save(card));
     }
 
@@ -116,22 +197,259 @@ public class CardServiceImpl implements CardService {
      * {@inheritDoc}
      */
     @Override
-    public Page<CardDto> listCards(User owner, Pageable pageable) {
-        Page<Card> cards = cardRepository.findAllByOwner(owner, pageable);
-        return new PageImpl<>(cards.getContent().stream().map(CardMapper::toDto).toList(), pageable, cards.getTotalElements());
+    @Transactional(readOnly = true)
+    public Page<CardDto> listCards(Long ownerId, Pageable pageable) {
+        return cardRepository.findDtosByOwnerId(ownerId, pageable);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public CursorPage<CardDto> listCards(Long ownerId, String after, int limit, boolean withCount) {
+        CursorUtil.checkLimit(limit);
+        // Лишняя строка показывает, есть ли следующая страница
+        List<CardDto> cards = cardRepository.findDtosByOwnerIdAfter(ownerId, CursorUtil.decode(after), Limit.of(limit + 1));
+        boolean hasNext = cards.size() > limit;
+        List<CardDto> page = hasNext ? new ArrayList<>(cards.subList(0, limit)) : cards;
+        String nextCursor = hasNext ? CursorUtil.encode(page.get(page.size() - 1).getId()) : null;
+        Long total = withCount ? cardRepository.countByOwnerId(ownerId) : null;
+        return new CursorPage<>(page, nextCursor, total);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Каждая попытка перевода выполняется в собственной транзакции,
+     * поэтому метод намеренно не помечен {@code @Transactional}.
+     */
+    @Override
     public void transferBetweenCards(Long fromCardId, Long toCardId, BigDecimal amount, User user) {
-        Card fromCard = cardRepository.findById(fromCardId).orElseThrow();
-        Card toCard = cardRepository.findById(toCardId).orElseThrow();
-        if (!fromCard.getOwner().equals(user) || !toCard.getOwner().equals(user)) {
+        if (amount == null || amount.signum() <= 0) {
+            // Отрицательная сумма перевела бы средства в обратную сторону
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Long ownerId = resolveOwnerId(user);
+            switch (transferStrategy) {
+                case OPTIMISTIC -> transferOptimistic(fromCardId, toCardId, amount, ownerId);
+                case ATOMIC -> transactionTemplate.executeWithoutResult(status -> transferAtomic(fromCardId, toCardId, amount, ownerId));
+                default -> transactionTemplate.executeWithoutResult(status -> transferPessimistic(fromCardId, toCardId, amount, ownerId));
+            }
+        } finally {
+            sample.stop(meterRegistry.timer("bank.transfer", "strategy", transferStrategy.name()));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Измененные карты записываются при коммите пакетными UPDATE
+     * (hibernate.jdbc.batch_size, hibernate.order_updates).
+     */
+    @Override
+    public List<TransferResult> transferBatch(List<TransferRequest> transfers, User user) {
+        Long ownerId = resolveOwnerId(user);
+        return transactionTemplate.execute(status -> {
+            TreeSet<Long> ids = new TreeSet<>();
+            for (TransferRequest transfer : transfers) {
+                if (transfer.getFromCardId() != null && transfer.getToCardId() != null) {
+                    ids.add(transfer.getFromCardId());
+                    ids.add(transfer.getToCardId());
+                }
+            }
+            Map<Long, Card> cards = new HashMap<>();
+            if (!ids.isEmpty()) {
+                for (Card card : cardRepository.findAllByIdInForUpdate(ids)) {
+                    cards.put(card.getId(), card);
+                }
+            }
+            List<TransferResult> results = new ArrayList<>(transfers.size());
+            List<CardTransaction> journal = new ArrayList<>();
+            for (int i = 0; i < transfers.size(); i++) {
+                TransferResult result = applyBatchTransfer(i, transfers.get(i), cards, ownerId);
+                if (result.getError() == null) {
+                    TransferRequest transfer = transfers.get(i);
+                    addTransferEntries(journal, transfer.getFromCardId(), transfer.getToCardId(), transfer.getAmount());
+                }
+                results.add(result);
+            }
+            cardTransactionRepository.saveAll(journal);
+            balanceCache.evictAfterCommit(cards.keySet());
+            return results;
+        });
+    }
+
+    private TransferResult applyBatchTransfer(int index, TransferRequest transfer, Map<Long, Card> cards, Long ownerId) {
+        if (transfer.getFromCardId() == null || transfer.getToCardId() == null
+                || transfer.getAmount() == null || transfer.getAmount().signum() <= 0) {
+            return TransferResult.failed(index, "Invalid transfer");
+        }
+        Card fromCard = cards.get(transfer.getFromCardId());
+        Card toCard = cards.get(transfer.getToCardId());
+        if (fromCard == null || toCard == null) {
+            return TransferResult.failed(index, "Card not found");
+        }
+        if (!ownerId.equals(fromCard.getOwner().getId()) || !ownerId.equals(toCard.getOwner().getId())) {
+            return TransferResult.failed(index, "User does not own both cards");
+        }
+        String rejection = transferRejection(fromCard, toCard);
+        if (rejection != null) {
+            return TransferResult.failed(index, rejection);
+        }
+        if (fromCard.getBalance().compareTo(transfer.getAmount()) < 0) {
+            return TransferResult.failed(index, "Insufficient funds");
+        }
+        fromCard.setBalance(fromCard.getBalance().subtract(transfer.getAmount()));
+        toCard.setBalance(toCard.getBalance().add(transfer.getAmount()));
+        return TransferResult.ok(index);
+    }
+
+    private void transferPessimistic(Long fromCardId, Long toCardId, BigDecimal amount, Long ownerId) {
+        // Строки блокируются в порядке возрастания id: встречные переводы
+        // между одними и теми же картами не могут заблокировать друг друга
+        Card fromCard;
+        Card toCard;
+        if (fromCardId <= toCardId) {
+            fromCard = cardRepository.findByIdForUpdate(fromCardId).orElseThrow();
+            toCard = cardRepository.findByIdForUpdate(toCardId).orElseThrow();
+        } else {
+            toCard = cardRepository.findByIdForUpdate(toCardId).orElseThrow();
+            fromCard = cardRepository.findByIdForUpdate(fromCardId).orElseThrow();
+        }
+        applyTransfer(fromCard, toCard, amount, ownerId);
+    }
+
+    private void transferOptimistic(Long fromCardId, Long toCardId, BigDecimal amount, Long ownerId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Транзакцией владеет вызывающий (идемпотентный перевод): повторить попытку внутри нее нельзя,
+            // поэтому версия проверяется сразу, а конфликт возвращается клиенту для повтора запроса
+            try {
+                applyTransfer(cardRepository.findById(fromCardId).orElseThrow(),
+                        cardRepository.findById(toCardId).orElseThrow(), amount, ownerId);
+                cardRepository.flush();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("bank.transfer.optimistic.conflicts").increment();
+                throw new TransferConflictException("Transfer aborted after a conflicting update");
+            }
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyTransfer(
+                        cardRepository.findById(fromCardId).orElseThrow(),
+                        cardRepository.findById(toCardId).orElseThrow(),
+                        amount, ownerId));
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("bank.transfer.optimistic.conflicts").increment();
+                if (attempt >= optimisticMaxAttempts) {
+                    meterRegistry.counter("bank.transfer.optimistic.exhausted").increment();
+                    throw new TransferConflictException("Transfer aborted after " + attempt + " conflicting attempts");
+                }
+                meterRegistry.counter("bank.transfer.optimistic.retries").increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Экспоненциальная задержка с полным джиттером, чтобы повторы
+     * конфликтующих переводов не сталкивались снова в тот же момент.
+     */
+    private void backOff(int attempt) {
+        long ceiling = Math.min(optimisticMaxBackoffMs, optimisticBackoffMs << Math.min(attempt - 1, 16));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferConflictException("Transfer retry interrupted");
+        }
+    }
+
+    private void transferAtomic(Long fromCardId, Long toCardId, BigDecimal amount, Long ownerId) {
+        balanceCache.evictAfterCommit(fromCardId, toCardId);
+        LocalDate today = LocalDate.now();
+        // UPDATE выполняются в порядке возрастания id, как и блокировки в PESSIMISTIC
+        if (fromCardId <= toCardId) {
+            debit(fromCardId, ownerId, amount, today);
+            credit(toCardId, ownerId, amount, today);
+        } else {
+            credit(toCardId, ownerId, amount, today);
+            debit(fromCardId, ownerId, amount, today);
+        }
+        journalTransfer(fromCardId, toCardId, amount);
+    }
+
+    private void debit(Long cardId, Long ownerId, BigDecimal amount, LocalDate today) {
+        if (cardRepository.debit(cardId, ownerId, amount, today) == 0) {
+            throw rejectedUpdate(cardId, ownerId, today);
+        }
+    }
+
+    private void credit(Long cardId, Long ownerId, BigDecimal amount, LocalDate today) {
+        if (cardRepository.credit(cardId, ownerId, amount, today) == 0) {
+            throw rejectedUpdate(cardId, ownerId, today);
+        }
+    }
+
+    /**
+     * Определяет причину, по которой условный UPDATE не изменил строку.
+     * Карта читается только на этом редком пути; транзакция все равно будет откатана.
+     */
+    private RuntimeException rejectedUpdate(Long cardId, Long ownerId, LocalDate today) {
+        Card card = cardRepository.findById(cardId).orElseThrow();
+        if (!ownerId.equals(card.getOwner().getId())) {
+            return new IllegalArgumentException("User does not own both cards");
+        }
+        if (card.getStatus() != Card.Status.ACTIVE) {
+            return new IllegalArgumentException("Card is not active");
+        }
+        if (card.getExpiryDate().isBefore(today)) {
+            return new IllegalArgumentException("Card is expired");
+        }
+        return new InsufficientFundsException("Insufficient funds");
+    }
+
+    /**
+     * Проверяет, что обе карты активны и срок их действия не истек. Срок проверяется
+     * по дате: карта с прошедшей датой могла еще не попасть в обход {@link com.example.bankcards.service.CardExpiryJob}.
+     *
+     * @return причина отказа или null, если перевод по картам допустим
+     */
+    private static String transferRejection(Card fromCard, Card toCard) {
+        if (fromCard.getStatus() != Card.Status.ACTIVE || toCard.getStatus() != Card.Status.ACTIVE) {
+            return "Card is not active";
+        }
+        LocalDate today = LocalDate.now();
+        if (fromCard.getExpiryDate().isBefore(today) || toCard.getExpiryDate().isBefore(today)) {
+            return "Card is expired";
+        }
+        return null;
+    }
+
+    private Long resolveOwnerId(User user) {
+        if (user.getId() != null) {
+            return user.getId();
+        }
+        return userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()))
+                .getId();
+    }
+
+    private void applyTransfer(Card fromCard, Card toCard, BigDecimal amount, Long ownerId) {
+        if (!ownerId.equals(fromCard.getOwner().getId()) || !ownerId.equals(toCard.getOwner().getId())) {
             throw new IllegalArgumentException("User does not own both cards");
         }
+        String rejection = transferRejection(fromCard, toCard);
+        if (rejection != null) {
+            throw new IllegalArgumentException(rejection);
+        }
         if (fromCard.getBalance().compareTo(amount) < 0) {
             throw new InsufficientFundsException("Insufficient funds");
         }
@@ -139,15 +457,63 @@ public class CardServiceImpl implements CardService {
         toCard.setBalance(toCard.getBalance().add(amount));
         cardRepository.save(fromCard);
         cardRepository.save(toCard);
+        journalTransfer(fromCard.getId(), toCard.getId(), amount);
+        balanceCache.evictAfterCommit(fromCard.getId(), toCard.getId());
+    }
+
+    /**
+     * Записывает в журнал списание и зачисление перевода. Записи вставляются при коммите
+     * одним пакетом вместе с изменением карт, id берутся из выделенного блока последовательности.
+     */
+    private void journalTransfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+        List<CardTransaction> journal = new ArrayList<>(2);
+        addTransferEntries(journal, fromCardId, toCardId, amount);
+        cardTransactionRepository.saveAll(journal);
+    }
+
+    private static void addTransferEntries(List<CardTransaction> journal, Long fromCardId, Long toCardId,
+                                           BigDecimal amount) {
+        journal.add(new CardTransaction(fromCardId, toCardId, CardTransaction.Type.TRANSFER_DEBIT, amount.negate()));
+        journal.add(new CardTransaction(toCardId, fromCardId, CardTransaction.Type.TRANSFER_CREDIT, amount));
+    }
+
+    private void journalAdjustment(Long cardId, BigDecimal delta) {
+        if (delta != null && delta.signum() != 0) {
+            cardTransactionRepository.save(new CardTransaction(cardId, null, CardTransaction.Type.ADJUSTMENT, delta));
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CardTransactionDto> listTransactions(Long cardId, User user, String after, int limit) {
+        CursorUtil.checkLimit(limit);
+        long cursor = CursorUtil.decode(after);
+        if (!cardRepository.existsByIdAndOwnerId(cardId, resolveOwnerId(user))) {
+            throw new IllegalArgumentException("User does not own this card");
+        }
+        // Журнал отдается от новых записей к старым; пустой курсор означает начало журнала
+        List<CardTransactionDto> entries = cardTransactionRepository.findDtosByCardIdBefore(
+                cardId, cursor == 0 ? Long.MAX_VALUE : cursor, Limit.of(limit + 1));
+        boolean hasNext = entries.size() > limit;
+        List<CardTransactionDto> page = hasNext ? new ArrayList<>(entries.subList(0, limit)) : entries;
+        String nextCursor = hasNext ? CursorUtil.encode(page.get(page.size() - 1).getId()) : null;
+        return new CursorPage<>(page, nextCursor, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Баланс читается из {@link CardBalanceCache}; при попадании в кэш
+     * транзакция не открывается и соединение с базой данных не берется.
+     */
+    @Override
     public BigDecimal getBalance(Long cardId, User user) {
-        Card card = cardRepository.findById(cardId).orElseThrow();
-        if (!card.getOwner().equals(user)) {
+        CardBalance card = Optional.ofNullable(
+                balanceCache.get(cardId, id -> cardRepository.findBalanceById(id).orElse(null))).orElseThrow();
+        if (!resolveOwnerId(user).equals(card.getOwnerId())) {
             throw new IllegalArgumentException("User does not own this card");
         }
         return card.getBalance();
@@ -0,0 +1,183 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.IdempotentResponse;
+import com.example.bankcards.entity.IdempotencyKey;
+import com.example.bankcards.exception.IdempotencyConflictException;
+import com.example.bankcards.exception.IdempotencyKeyMismatchException;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.service.IdempotencyService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.function.IntSupplier;
+
+/**
+ * Реализация сервиса идемпотентного выполнения запросов.
+ * Ключи хранятся в таблице idempotency_keys вместе с SHA-256 параметров запроса; выполненные
+ * ответы дополнительно кэшируются в памяти, поэтому повтор обрабатывается без обращения к базе данных.
+ * Действие и отметка COMPLETED фиксируются одной транзакцией, поэтому выполненное действие
+ * не может остаться с ключом IN_PROGRESS. Ключ, оставшийся в состоянии IN_PROGRESS дольше аренды
+ * (например, после падения экземпляра), может быть занят повторным запросом; время регистрации ключа
+ * служит маркером владельца, и запрос, у которого ключ перехвачен, откатывает свое действие.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    /** Максимальная длина ключа из заголовка Idempotency-Key */
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+    private final Cache<String, CompletedResponse> completedResponses;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     * 
+     * @param idempotencyKeyRepository репозиторий ключей идемпотентности
+     * @param transactionTemplate шаблон для коротких транзакций регистрации ключа
+     * @param meterRegistry реестр метрик кэша
+     * @param ttl время хранения ключа
+     * @param inProgressLease время, после которого незавершенный запрос считается прерванным
+     * @param cacheTtl время хранения выполненного ответа в памяти
+     * @param cacheMaxSize максимальное число ответов в памяти
+     */
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${app.idempotency.in-progress-lease:PT1M}") Duration inProgressLease,
+                                  @Value("${app.idempotency.cache-ttl:10m}") Duration cacheTtl,
+                                  @Value("${app.idempotency.cache-max-size:100000}") long cacheMaxSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+        this.completedResponses = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl.compareTo(ttl) < 0 ? cacheTtl : ttl)
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completedResponses, "idempotency");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IdempotentResponse execute(String username, String key, String fingerprint, IntSupplier action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters long");
+        }
+        String scopedKey = scopedKey(username, key);
+        String requestHash = sha256(fingerprint);
+        CompletedResponse cached = completedResponses.getIfPresent(scopedKey);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash, requestHash);
+            return new IdempotentResponse(cached.status, true);
+        }
+        // Миллисекунды сохраняются в created_at без округления, время сравнивается точно
+        Instant claimedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Boolean claimed = transactionTemplate.execute(status -> idempotencyKeyRepository.claim(
+                scopedKey, username, requestHash, claimedAt, claimedAt.minus(inProgressLease)) == 1);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return replayStored(scopedKey, requestHash);
+        }
+        int responseStatus;
+        try {
+            // Транзакции действия присоединяются к этой: перевод и COMPLETED фиксируются вместе
+            responseStatus = transactionTemplate.execute(status -> {
+                int result = action.getAsInt();
+                if (idempotencyKeyRepository.complete(scopedKey, claimedAt, IdempotencyKey.Status.COMPLETED, result) == 0) {
+                    throw new IdempotencyConflictException("Idempotency-Key was taken over by a retry after its lease expired");
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // Неуспешный запрос не фиксируется: клиент может повторить его с тем же ключом.
+            // Ключ, перехваченный другим запросом, принадлежит уже ему и не удаляется
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.release(scopedKey, claimedAt));
+            throw e;
+        }
+        completedResponses.put(scopedKey, new CompletedResponse(responseStatus, requestHash));
+        return new IdempotentResponse(responseStatus, false);
+    }
+
+    private IdempotentResponse replayStored(String scopedKey, String requestHash) {
+        IdempotencyKey stored = idempotencyKeyRepository.findById(scopedKey).orElse(null);
+        if (stored != null) {
+            checkSameRequest(stored.getRequestHash(), requestHash);
+        }
+        if (stored == null || stored.getStatus() != IdempotencyKey.Status.COMPLETED) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+        }
+        completedResponses.put(scopedKey, new CompletedResponse(stored.getResponseStatus(), stored.getRequestHash()));
+        return new IdempotentResponse(stored.getResponseStatus(), true);
+    }
+
+    /**
+     * Ключ в таблице: имя пользователя с префиксом длины, чтобы пары (имя, ключ)
+     * вида ("a", "b:x") и ("a:b", "x") не совпадали.
+     */
+    private static String scopedKey(String username, String key) {
+        return username.length() + ":" + username + ":" + key;
+    }
+
+    /**
+     * Ключ, зарегистрированный до появления request_hash, параметры не проверяет.
+     */
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (storedHash != null && !storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used with different request parameters");
+        }
+    }
+
+    private static String sha256(String fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Удаляет ключи старше времени хранения.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1H}")
+    public void purgeExpiredKeys() {
+        Instant threshold = Instant.now().minus(ttl);
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteCreatedBefore(threshold));
+    }
+
+    /**
+     * Выполненный ответ в кэше вместе с SHA-256 параметров запроса.
+     */
+    private static final class CompletedResponse {
+        private final int status;
+        private final String requestHash;
+
+        private CompletedResponse(int status, String requestHash) {
+            this.status = status;
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.repository.ReactiveCardRepository;
+import com.example.bankcards.service.ReactiveCardService;
+import com.example.bankcards.util.CursorUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+
+/**
+ * Реализация неблокирующего сервиса чтения карт.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Service
+public class ReactiveCardServiceImpl implements ReactiveCardService {
+    private final ReactiveCardRepository cardRepository;
+
+    /**
+     * Конструктор с внедрением зависимостей.
+     * 
+     * @param cardRepository реактивный репозиторий карт
+     */
+    @Autowired
+    public ReactiveCardServiceImpl(ReactiveCardRepository cardRepository) {
+        this.cardRepository = cardRepository;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<BigDecimal> getBalance(Long cardId, Long userId) {
+        return cardRepository.findBalanceById(cardId)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Card not found")))
+                .handle((card, sink) -> {
+                    if (!userId.equals(card.getOwnerId())) {
+                        sink.error(new IllegalArgumentException("User does not own this card"));
+                    } else {
+                        sink.next(card.getBalance());
+                    }
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<CardDto> listCards(Long ownerId, String after, Integer limit) {
+        if (limit != null) {
+            CursorUtil.checkLimit(limit);
+        }
+        long afterId = CursorUtil.decode(after);
+        return cardRepository.findDtosByOwnerIdAfter(ownerId, afterId, limit != null ? limit : Long.MAX_VALUE);
+    }
+}
@@ -3,8 +3,11 @@ package com.example.bankcards.service.impl;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.Role.RoleName;
 import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.security.RoleRegistry;
+import com.example.bankcards.security.RolesChangedEvent;
 import com.example.bankcards.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,25 +17,33 @@ import java.util.Optional;
 @Service
 public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public RoleServiceImpl(RoleRepository roleRepository) {
+    public RoleServiceImpl(RoleRepository roleRepository, RoleRegistry roleRegistry,
+                           ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Optional<Role> findByName(RoleName name) {
-        return roleRepository.findByName(name);
+        return roleRegistry.findByName(name);
     }
 
     @Override
     @Transactional
     public Role createRole(Role role) {
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        // Реестр перечитает роли после коммита
+        eventPublisher.publishEvent(new RolesChangedEvent());
+        return saved;
     }
 
     @Override
     public List<Role> listRoles() {
-        return roleRepository.findAll();
+        return roleRegistry.findAll();
     }
-} 
\ No newline at end of file
+}
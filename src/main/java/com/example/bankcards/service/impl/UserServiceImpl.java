@@ -3,15 +3,22 @@ package com.example.bankcards.service.impl;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.repository.RoleRepository;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationList;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.dto.CursorPage;
 import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.util.CursorUtil;
+import com.example.bankcards.util.TransactionUtils;
 import com.example.bankcards.util.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -26,33 +33,42 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList tokenRevocationList;
 
     /**
      * Конструктор с внедрением зависимостей.
      * 
      * @param userRepository репозиторий для работы с пользователями
      * @param roleRepository репозиторий для работы с ролями
+     * @param principalCache кэш пользователей для аутентификации
+     * @param tokenRevocationList список отзыва JWT токенов
      */
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository) {
+    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository,
+                           PrincipalCache principalCache, TokenRevocationList tokenRevocationList) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.principalCache = principalCache;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<UserDto> findById(Long id) {
-        return userRepository.findById(id).map(UserMapper::toDto);
+        return userRepository.findWithRolesById(id).map(UserMapper::toDto);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<UserDto> findByUsername(String username) {
-        return userRepository.findByUsername(username).map(UserMapper::toDto);
+        return userRepository.findWithRolesByUsername(username).map(UserMapper::toDto);
     }
 
     /**
@@ -70,8 +86,12 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto updateUser(Long id, User user) {
+        userRepository.findById(id).ifPresent(existing -> evictPrincipalAfterCommit(existing.getUsername()));
         user.setId(id);
-        return UserMapper.toDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+        evictPrincipalAfterCommit(saved.getUsername());
+        tokenRevocationList.revoke(id);
+        return UserMapper.toDto(saved);
     }
 
     /**
@@ -80,15 +100,45 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long id) {
+        userRepository.findById(id).ifPresent(existing -> {
+            evictPrincipalAfterCommit(existing.getUsername());
+            tokenRevocationList.revoke(id);
+        });
         userRepository.deleteById(id);
     }
 
+    /**
+     * После коммита сбрасывает закэшированного пользователя, чтобы измененные роли
+     * и удаление вступили в силу для следующих запросов. Токены пользователя отзываются
+     * в той же транзакции через {@link TokenRevocationList#revoke(Long)}.
+     */
+    private void evictPrincipalAfterCommit(String username) {
+        TransactionUtils.afterCommit(() -> principalCache.evict(username));
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<UserDto> listUsers(Pageable pageable) {
         return userRepository.findAll(pageable)
                 .map(UserMapper::toDto);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> listUsers(String after, int limit, boolean withCount) {
+        CursorUtil.checkLimit(limit);
+        // Лишняя строка показывает, есть ли следующая страница
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(CursorUtil.decode(after), Limit.of(limit + 1));
+        boolean hasNext = users.size() > limit;
+        List<User> page = hasNext ? users.subList(0, limit) : users;
+        String nextCursor = hasNext ? CursorUtil.encode(page.get(page.size() - 1).getId()) : null;
+        Long total = withCount ? userRepository.count() : null;
+        return new CursorPage<>(page.stream().map(UserMapper::toDto).toList(), nextCursor, total);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.bankcards.util;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+public class CacheUtils {
+    /**
+     * Возвращает значение из кэша, загружая его в вызывающем потоке при отсутствии.
+     * Загрузка выполняется вне блокировки ConcurrentHashMap (в отличие от Cache.get с загрузчиком),
+     * поэтому обращение к базе данных не закрепляет виртуальный поток за потоком-носителем.
+     * Параллельные запросы того же ключа ждут ту же загрузку; значение, сброшенное
+     * во время загрузки, в кэш не попадает. Null и ошибки не кэшируются.
+     */
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                V value = loader.apply(key);
+                loading.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
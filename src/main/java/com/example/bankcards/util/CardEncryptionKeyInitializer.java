@@ -0,0 +1,33 @@
+package com.example.bankcards.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+
+/**
+ * Загружает ключи шифрования и слепого индекса номеров карт из конфигурации один раз при старте.
+ * 
+ * @author Bank REST Team
+ * @version 1.0
+ */
+@Component
+public class CardEncryptionKeyInitializer {
+    /** Ключ AES в Base64 (16, 24 или 32 байта) */
+    @Value("${app.card.encryption-key:TXlTZWNyZXRLZXkxMjM0NQ==}")
+    private String encryptionKey;
+
+    /** Ключ HMAC для pan_hash в Base64 (не короче 32 байт) */
+    @Value("${app.card.hash-key:TXlDYXJkSGFzaEtleS0wMTIzNDU2Nzg5YWJjZGVmZ2g=}")
+    private String hashKey;
+
+    /**
+     * Передает ключи в {@link CardEncryptionUtil} и {@link CardHashUtil}.
+     */
+    @PostConstruct
+    public void init() {
+        CardEncryptionUtil.configure(Base64.getDecoder().decode(encryptionKey));
+        CardHashUtil.configure(Base64.getDecoder().decode(hashKey));
+    }
+}
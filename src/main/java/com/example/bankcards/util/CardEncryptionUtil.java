@@ -1,35 +1,153 @@
 package com.example.bankcards.util;
 
 import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 
 public class CardEncryptionUtil {
     private static final String ALGORITHM = "AES";
-    private static final String SECRET_KEY = "MySecretKey12345"; // 16 символов для AES-128
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String GCM_PREFIX = "v2:";
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final String DEFAULT_SECRET_KEY = "MySecretKey12345"; // 16 символов для AES-128
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int[] BASE64_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = i;
+        }
+    }
+
+    // Cipher не потокобезопасен: экземпляры берутся из пула, init с готовым ключом дешевле getInstance
+    private static final ObjectPool<Cipher> GCM_CIPHERS = new ObjectPool<>(() -> newCipher(GCM_TRANSFORMATION));
+    private static final ObjectPool<Cipher> LEGACY_CIPHERS = new ObjectPool<>(() -> newCipher(LEGACY_TRANSFORMATION));
+
+    private static volatile SecretKeySpec key =
+            new SecretKeySpec(DEFAULT_SECRET_KEY.getBytes(StandardCharsets.US_ASCII), ALGORITHM);
+
+    /**
+     * Задает ключ шифрования; вызывается один раз при старте приложения.
+     * Ключ используется и для новых записей (AES-GCM), и для чтения старых (AES/ECB).
+     */
+    public static void configure(byte[] keyBytes) {
+        if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+            throw new IllegalArgumentException("Card encryption key must be 16, 24 or 32 bytes");
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
 
     public static String encrypt(String cardNumber) {
+        Cipher cipher = GCM_CIPHERS.acquire();
         try {
-            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            byte[] encrypted = cipher.doFinal(cardNumber.getBytes());
-            return Base64.getEncoder().encodeToString(encrypted);
-        } catch (Exception e) {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] plain = cardNumber.getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer out = ByteBuffer.allocate(GCM_IV_LENGTH + cipher.getOutputSize(plain.length));
+            out.put(iv);
+            cipher.doFinal(ByteBuffer.wrap(plain), out);
+            return GCM_PREFIX + Base64.getEncoder().encodeToString(out.array());
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Error encrypting card number", e);
+        } finally {
+            GCM_CIPHERS.release(cipher);
         }
     }
 
     public static String decrypt(String encryptedCardNumber) {
+        try (PanBuffer pan = decryptToBuffer(encryptedCardNumber)) {
+            return pan.number();
+        }
+    }
+
+    /**
+     * Расшифровывает номер в буфер из пула без промежуточных массивов и строк.
+     * Буфер нужно закрыть (try-with-resources), чтобы затереть номер и вернуть буфер в пул.
+     */
+    public static PanBuffer decryptToBuffer(String encryptedCardNumber) {
+        PanBuffer pan = PanBuffer.acquire();
         try {
-            SecretKeySpec key = new SecretKeySpec(SECRET_KEY.getBytes(), ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, key);
-            byte[] decoded = Base64.getDecoder().decode(encryptedCardNumber);
-            byte[] decrypted = cipher.doFinal(decoded);
-            return new String(decrypted);
-        } catch (Exception e) {
+            boolean gcm = encryptedCardNumber.startsWith(GCM_PREFIX);
+            int offset = gcm ? GCM_PREFIX.length() : 0;
+            pan.ensureCapacity(encryptedCardNumber.length() - offset);
+            int encryptedLength = decodeBase64(encryptedCardNumber, offset, pan.encrypted);
+            if (gcm) {
+                if (encryptedLength < GCM_IV_LENGTH) {
+                    throw new IllegalArgumentException("Encrypted card number is too short");
+                }
+                Cipher cipher = GCM_CIPHERS.acquire();
+                try {
+                    cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, pan.encrypted, 0, GCM_IV_LENGTH));
+                    pan.length = cipher.doFinal(pan.encrypted, GCM_IV_LENGTH, encryptedLength - GCM_IV_LENGTH, pan.digits, 0);
+                } finally {
+                    GCM_CIPHERS.release(cipher);
+                }
+            } else {
+                // Записи, зашифрованные до перехода на AES-GCM
+                Cipher cipher = LEGACY_CIPHERS.acquire();
+                try {
+                    cipher.init(Cipher.DECRYPT_MODE, key);
+                    pan.length = cipher.doFinal(pan.encrypted, 0, encryptedLength, pan.digits, 0);
+                } finally {
+                    LEGACY_CIPHERS.release(cipher);
+                }
+            }
+            return pan;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            pan.close();
             throw new RuntimeException("Error decrypting card number", e);
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Декодирует Base64 из строки, начиная с позиции from, в массив dst.
+     *
+     * @return число записанных байт
+     */
+    private static int decodeBase64(String source, int from, byte[] dst) {
+        int end = source.length();
+        while (end > from && source.charAt(end - 1) == '=') {
+            end--;
+        }
+        if ((end - from) % 4 == 1 || source.length() - end > 2) {
+            throw new IllegalArgumentException("Invalid Base64 length");
+        }
+        int bits = 0;
+        int bitCount = 0;
+        int written = 0;
+        for (int i = from; i < end; i++) {
+            char c = source.charAt(i);
+            int value = c < BASE64_VALUES.length ? BASE64_VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Illegal Base64 character");
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                dst[written++] = (byte) (bits >> bitCount);
+            }
+        }
+        return written;
+    }
+
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher " + transformation + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bankcards.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.util.HexFormat;
+
+public class CardHashUtil {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String DEFAULT_SECRET_KEY = "MyCardHashKey-0123456789abcdefgh"; // отдельный от ключа шифрования
+
+    // Mac не потокобезопасен: экземпляры берутся из пула, при смене ключа создаются заново
+    private static final ObjectPool<KeyedMac> MACS = new ObjectPool<>(() -> new KeyedMac(CardHashUtil.key));
+
+    private static volatile SecretKeySpec key =
+            new SecretKeySpec(DEFAULT_SECRET_KEY.getBytes(StandardCharsets.US_ASCII), ALGORITHM);
+
+    /**
+     * Задает ключ HMAC; вызывается один раз при старте приложения.
+     * Смена ключа требует пересчета pan_hash у всех карт.
+     */
+    public static void configure(byte[] keyBytes) {
+        if (keyBytes.length < 32) {
+            throw new IllegalArgumentException("Card hash key must be at least 32 bytes");
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Слепой индекс номера карты: HMAC-SHA256 в hex (64 символа).
+     * Детерминирован, поэтому по нему ищется карта без расшифровки номеров.
+     */
+    public static String hash(String cardNumber) {
+        KeyedMac keyed = acquire();
+        try {
+            return HexFormat.of().formatHex(keyed.mac.doFinal(cardNumber.getBytes(StandardCharsets.US_ASCII)));
+        } finally {
+            MACS.release(keyed);
+        }
+    }
+
+    /**
+     * То же, что {@link #hash(String)}, для номера в буфере без создания строки с номером.
+     */
+    public static String hash(PanBuffer pan) {
+        KeyedMac keyed = acquire();
+        try {
+            keyed.mac.update(pan.digits, 0, pan.length);
+            return HexFormat.of().formatHex(keyed.mac.doFinal());
+        } finally {
+            MACS.release(keyed);
+        }
+    }
+
+    private static KeyedMac acquire() {
+        SecretKeySpec current = key;
+        KeyedMac keyed = MACS.acquire();
+        // Mac со старым ключом отбрасывается, в пул возвращается экземпляр с текущим ключом
+        return keyed.key == current ? keyed : new KeyedMac(current);
+    }
+
+    private static final class KeyedMac {
+        private final SecretKeySpec key;
+        private final Mac mac;
+
+        private KeyedMac(SecretKeySpec key) {
+            this.key = key;
+            try {
+                this.mac = Mac.getInstance(ALGORITHM);
+                this.mac.init(key);
+            } catch (InvalidKeyException e) {
+                throw new IllegalArgumentException("Invalid card hash key", e);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " is not available", e);
+            }
+        }
+    }
+}
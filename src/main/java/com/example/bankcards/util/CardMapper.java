@@ -5,11 +5,9 @@ import com.example.bankcards.entity.Card;
 
 public class CardMapper {
     public static CardDto toDto(Card card) {
-        String decrypted = CardEncryptionUtil.decrypt(card.getCardNumber());
-        String masked = CardMaskUtil.mask(decrypted);
         CardDto dto = new CardDto();
         dto.setId(card.getId());
-        dto.setMaskedCardNumber(masked);
+        dto.setMaskedCardNumber(maskedNumber(card.getLast4(), card.getCardNumber()));
         if (card.getOwner() != null) {
             dto.setOwnerUsername(card.getOwner().getUsername());
         }
@@ -18,4 +16,14 @@ public class CardMapper {
         dto.setBalance(card.getBalance());
         return dto;
     }
+
+    public static String maskedNumber(String last4, String encryptedCardNumber) {
+        // Полный номер расшифровывается только для строк, еще не заполненных CardBackfillJob
+        if (last4 != null) {
+            return CardMaskUtil.maskLast4(last4);
+        }
+        try (PanBuffer pan = CardEncryptionUtil.decryptToBuffer(encryptedCardNumber)) {
+            return pan.masked();
+        }
+    }
 } 
\ No newline at end of file
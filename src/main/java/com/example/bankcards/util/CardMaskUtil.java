@@ -2,11 +2,20 @@ package com.example.bankcards.util;
 
 public class CardMaskUtil {
     public static String mask(String cardNumber) {
+        return maskLast4(last4(cardNumber));
+    }
+
+    public static String last4(String cardNumber) {
         if (cardNumber == null || cardNumber.length() < 4) {
-            return "****";
+            return null;
         }
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
 
-        String last4 = cardNumber.substring(cardNumber.length() - 4);
+    public static String maskLast4(String last4) {
+        if (last4 == null) {
+            return "****";
+        }
         return "**** **** **** " + last4;
     }
-} 
\ No newline at end of file
+}
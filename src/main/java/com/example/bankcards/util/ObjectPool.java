@@ -0,0 +1,45 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Пул переиспользуемых объектов, которые дорого создавать и нельзя делить между потоками
+ * (Cipher, Mac, буферы номеров карт). В отличие от ThreadLocal не привязан к потоку,
+ * поэтому объекты переиспользуются и виртуальными потоками, которые создаются на каждый запрос.
+ */
+final class ObjectPool<T> {
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Supplier<T> factory;
+    private final int maxIdle;
+
+    ObjectPool(Supplier<T> factory) {
+        this.factory = factory;
+        this.maxIdle = Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * Берет свободный объект или создает новый, если свободных нет.
+     */
+    T acquire() {
+        T object = idle.poll();
+        if (object == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return object;
+    }
+
+    /**
+     * Возвращает объект в пул; лишние объекты сверх maxIdle отбрасываются.
+     */
+    void release(T object) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(object);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
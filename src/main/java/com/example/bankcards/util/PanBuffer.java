@@ -0,0 +1,110 @@
+package com.example.bankcards.util;
+
+import java.util.Arrays;
+
+/**
+ * Переиспользуемый буфер расшифрованного номера карты из пула.
+ * Номер хранится в виде байтов ASCII и не превращается в String: маска и последние
+ * цифры собираются прямо из буфера, а {@link #close()} затирает номер и шифротекст
+ * и возвращает буфер в пул. После закрытия буфер использовать нельзя; повторный close ничего не делает.
+ */
+public final class PanBuffer implements AutoCloseable {
+    private static final ObjectPool<PanBuffer> POOL = new ObjectPool<>(PanBuffer::new);
+    private static final String MASK_PREFIX = "**** **** **** ";
+
+    /** Шифротекст после Base64 */
+    byte[] encrypted = new byte[64];
+    /** Открытый номер карты в ASCII */
+    byte[] digits = new byte[64];
+    /** Длина номера в {@link #digits} */
+    int length;
+
+    private final char[] masked = (MASK_PREFIX + "0000").toCharArray();
+    private final char[] last4 = new char[4];
+    /** Буфер закрыт и находится в пуле */
+    private boolean closed;
+
+    private PanBuffer() {}
+
+    static PanBuffer acquire() {
+        PanBuffer buffer = POOL.acquire();
+        buffer.closed = false;
+        return buffer;
+    }
+
+    /**
+     * Увеличивает буферы под шифротекст заданной длины; старые буферы затираются.
+     */
+    void ensureCapacity(int encryptedLength) {
+        if (encrypted.length < encryptedLength) {
+            Arrays.fill(encrypted, (byte) 0);
+            encrypted = new byte[encryptedLength];
+        }
+        if (digits.length < encryptedLength) {
+            Arrays.fill(digits, (byte) 0);
+            digits = new byte[encryptedLength];
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Маска номера вида {@code **** **** **** 1234}, как у {@link CardMaskUtil#mask}.
+     */
+    public String masked() {
+        if (length < 4) {
+            return "****";
+        }
+        for (int i = 0; i < 4; i++) {
+            masked[MASK_PREFIX.length() + i] = (char) digits[length - 4 + i];
+        }
+        return new String(masked);
+    }
+
+    /**
+     * Последние 4 цифры номера или null, если номер короче 4 символов.
+     */
+    public String last4() {
+        if (length < 4) {
+            return null;
+        }
+        for (int i = 0; i < 4; i++) {
+            last4[i] = (char) digits[length - 4 + i];
+        }
+        return new String(last4);
+    }
+
+    /**
+     * Полный номер карты. Создает String с номером, поэтому используется только там,
+     * где номер действительно нужен целиком.
+     */
+    public String number() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) digits[i];
+        }
+        String number = new String(chars);
+        Arrays.fill(chars, '\0');
+        return number;
+    }
+
+    /**
+     * Затирает номер и шифротекст и возвращает буфер в пул.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            // Повторный возврат отдал бы один буфер двум владельцам
+            return;
+        }
+        closed = true;
+        Arrays.fill(digits, (byte) 0);
+        Arrays.fill(encrypted, (byte) 0);
+        Arrays.fill(masked, MASK_PREFIX.length(), masked.length, '0');
+        Arrays.fill(last4, '\0');
+        length = 0;
+        POOL.release(this);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.UserDto;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.security.PrincipalCache;
+import com.example.bankcards.security.TokenRevocationList;
+import com.example.bankcards.service.impl.UserServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Число SQL запросов на чтение пользователей не зависит от размера страницы.
+ * Схема создается Hibernate во встроенной H2, без миграций Liquibase.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class UserRepositoryTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserServiceImpl userService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserServiceImpl(userRepository, roleRepository,
+                mock(PrincipalCache.class), mock(TokenRevocationList.class));
+        Role userRole = role(Role.RoleName.USER);
+        Role adminRole = role(Role.RoleName.ADMIN);
+        for (int i = 0; i < 40; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("password");
+            user.setEmail("user" + i + "@example.com");
+            user.setRoles(i % 2 == 0 ? Set.of(userRole) : Set.of(userRole, adminRole));
+            userRepository.save(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listUsers_queryCountDoesNotDependOnPageSize() {
+        Page<UserDto> small = userService.listUsers(PageRequest.of(0, 5));
+        long smallPageQueries = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<UserDto> large = userService.listUsers(PageRequest.of(0, 30));
+        long largePageQueries = statistics.getPrepareStatementCount();
+
+        assertEquals(5, small.getContent().size());
+        assertEquals(30, large.getContent().size());
+        assertFalse(large.getContent().get(1).getRoles().isEmpty());
+        // страница, count(*) и одна пакетная догрузка ролей
+        assertEquals(3, largePageQueries);
+        assertEquals(smallPageQueries, largePageQueries);
+    }
+
+    @Test
+    void listUsersByCursor_queryCountDoesNotDependOnPageSize() {
+        userService.listUsers(null, 5, false);
+        long smallPageQueries = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+
+        assertEquals(30, userService.listUsers(null, 30, false).getItems().size());
+        // страница и одна пакетная догрузка ролей
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(smallPageQueries, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithRolesByUsername_loadsRolesInOneQuery() {
+        User user = userRepository.findWithRolesByUsername("user1").orElseThrow();
+        assertEquals(2, user.getRoles().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void saveAll_insertsUsersInJdbcBatches() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            User user = new User();
+            user.setUsername("batch" + i);
+            user.setPassword("password");
+            user.setEmail("batch" + i + "@example.com");
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+        entityManager.flush();
+        assertEquals(100, statistics.getEntityInsertCount());
+        // блоки id из users_seq и пакетные INSERT вместо 100 отдельных запросов
+        assertTrue(statistics.getPrepareStatementCount() < 10,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    private Role role(Role.RoleName name) {
+        Role role = new Role();
+        role.setName(name);
+        return roleRepository.save(role);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.Role.RoleName;
+import com.example.bankcards.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoleRegistryTest {
+
+    @Test
+    void authority_returnsSharedInstancesWithoutQueryingRoles() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, RoleName.ADMIN), role(2L, RoleName.USER)));
+        RoleRegistry registry = new RoleRegistry(roleRepository);
+        registry.refresh();
+
+        assertEquals("ROLE_ADMIN", registry.authority(1L).getAuthority());
+        assertSame(registry.authority(2L), registry.authority(2L));
+        assertSame(registry.authority(2L), registry.authority("ROLE_USER"));
+        assertEquals(RoleName.ADMIN, registry.findByName(RoleName.ADMIN).orElseThrow().getName());
+        assertNull(registry.authority(3L));
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_picksUpCreatedRole() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(), List.of(role(1L, RoleName.USER)));
+        RoleRegistry registry = new RoleRegistry(roleRepository);
+        registry.refresh();
+        assertTrue(registry.findByName(RoleName.USER).isEmpty());
+
+        registry.refresh();
+        assertTrue(registry.findByName(RoleName.USER).isPresent());
+        assertEquals(1, registry.findAll().size());
+    }
+
+    private static Role role(Long id, RoleName name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
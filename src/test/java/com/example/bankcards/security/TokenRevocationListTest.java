@@ -0,0 +1,76 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.TokenRevocation;
+import com.example.bankcards.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+    @Test
+    void revoke_rejectsTokenIssuedInSameSecondBeforeRevocation() {
+        TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+        when(repository.findVersion(1L)).thenReturn(Optional.of(0));
+        when(repository.incrementVersion(eq(1L), any())).thenReturn(1);
+        TokenRevocationList list = new TokenRevocationList(repository, 900_000, true);
+        list.init();
+
+        int issuedVersion = list.currentVersion(1L);
+        list.revoke(1L);
+
+        assertTrue(list.isRevoked(1L, issuedVersion));
+        assertFalse(list.isRevoked(1L, 1));
+        assertFalse(list.isRevoked(2L, 0));
+    }
+
+    @Test
+    void pollRevocations_picksUpRevocationFromAnotherNode() {
+        TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+        when(repository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new TokenRevocation(1L, 2, Instant.now())));
+        TokenRevocationList list = new TokenRevocationList(repository, 900_000, true);
+        list.init();
+        assertFalse(list.isRevoked(1L, 1));
+
+        list.pollRevocations();
+
+        assertTrue(list.isRevoked(1L, 1));
+        assertFalse(list.isRevoked(1L, 2));
+    }
+
+    @Test
+    void pollRevocations_keepsNewerLocalVersion() {
+        TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+        when(repository.incrementVersion(eq(1L), any())).thenReturn(3);
+        when(repository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new TokenRevocation(1L, 2, Instant.now())));
+        TokenRevocationList list = new TokenRevocationList(repository, 900_000, true);
+        list.init();
+        list.revoke(1L);
+
+        list.pollRevocations();
+
+        assertTrue(list.isRevoked(1L, 2));
+    }
+
+    @Test
+    void pollRevocations_skippedWithoutStatelessAuthorization() {
+        TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+        TokenRevocationList list = new TokenRevocationList(repository, 900_000, false);
+        list.init();
+
+        list.pollRevocations();
+
+        verify(repository, never()).findByRevokedAtAfter(any());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardRepository.EncryptedCardNumber;
+import com.example.bankcards.util.CardEncryptionUtil;
+import com.example.bankcards.util.CardHashUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CardBackfillJobTest {
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CardBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        job = new CardBackfillJob(cardRepository, new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+    }
+
+    @Test
+    void backfill_walksChunksByIdAndSkipsUndecryptableRows() {
+        when(cardRepository.findNotBackfilled(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                card(1L, CardEncryptionUtil.encrypt("1234567890123456")),
+                card(2L, "not-encrypted")));
+        when(cardRepository.findNotBackfilled(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                card(3L, CardEncryptionUtil.encrypt("1111222233334444"))));
+        when(cardRepository.findNotBackfilled(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(cardRepository.updateBackfilledColumns(anyLong(), anyString(), any(), anyBoolean())).thenReturn(1);
+        when(cardRepository.markBackfillFailed(2L)).thenReturn(1);
+
+        job.backfill();
+
+        verify(cardRepository).updateBackfilledColumns(1L, "3456", CardHashUtil.hash("1234567890123456"), false);
+        verify(cardRepository).updateBackfilledColumns(3L, "4444", CardHashUtil.hash("1111222233334444"), false);
+        verify(cardRepository, never()).updateBackfilledColumns(eq(2L), any(), any(), anyBoolean());
+        verify(cardRepository).markBackfillFailed(2L);
+        assertEquals(1.0, meterRegistry.counter("bank.card.backfill", "result", "failed").count());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void backfill_marksDuplicateNumberAsConflict() {
+        when(cardRepository.findNotBackfilled(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                card(1L, CardEncryptionUtil.encrypt("1234567890123456"))));
+        when(cardRepository.findNotBackfilled(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(cardRepository.existsByPanHash(CardHashUtil.hash("1234567890123456"))).thenReturn(true);
+        when(cardRepository.updateBackfilledColumns(1L, "3456", null, true)).thenReturn(1);
+
+        job.backfill();
+
+        verify(cardRepository).updateBackfilledColumns(1L, "3456", null, true);
+        assertEquals(1.0, meterRegistry.counter("bank.card.backfill", "result", "duplicate").count());
+        assertEquals(0.0, meterRegistry.counter("bank.card.backfill", "result", "updated").count());
+    }
+
+    private static EncryptedCardNumber card(Long id, String cardNumber) {
+        return new EncryptedCardNumber() {
+            @Override
+            public Long getId() { return id; }
+
+            @Override
+            public String getCardNumber() { return cardNumber; }
+        };
+    }
+}
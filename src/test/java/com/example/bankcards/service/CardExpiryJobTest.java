@@ -0,0 +1,79 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CardExpiryJobTest {
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement lockStatement;
+    @Mock
+    private ResultSet lockResult;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CardBalanceCache balanceCache;
+    private CardExpiryJob job;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        balanceCache = spy(new CardBalanceCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(1)));
+        job = new CardExpiryJob(cardRepository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), balanceCache, meterRegistry);
+        ReflectionTestUtils.setField(job, "chunkSize", 2);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> inv.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        when(connection.prepareStatement(anyString())).thenReturn(lockStatement);
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+    }
+
+    @Test
+    void expireCards_updatesInChunksUntilShortChunkAndEvictsCache() throws Exception {
+        when(lockResult.getBoolean(1)).thenReturn(true);
+        when(cardRepository.expireBefore(LocalDate.now(), 2))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        job.expireCards();
+        verify(cardRepository, times(2)).expireBefore(LocalDate.now(), 2);
+        verify(balanceCache).evictAfterCommit(List.of(1L, 2L));
+        verify(balanceCache).evictAfterCommit(List.of(3L));
+        verify(connection).prepareStatement("SELECT pg_advisory_unlock(?)");
+        verify(lockStatement, times(2)).setLong(1, CardExpiryJob.LOCK_KEY);
+        assertEquals(3.0, meterRegistry.counter("bank.card.expiry", "result", "expired").count());
+    }
+
+    @Test
+    void expireCards_skippedWhenAnotherInstanceHoldsLock() throws Exception {
+        when(lockResult.getBoolean(1)).thenReturn(false);
+        job.expireCards();
+        verifyNoInteractions(cardRepository);
+        verify(connection, never()).prepareStatement("SELECT pg_advisory_unlock(?)");
+        assertEquals(1.0, meterRegistry.counter("bank.card.expiry", "result", "locked").count());
+    }
+}
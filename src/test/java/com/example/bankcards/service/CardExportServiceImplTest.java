@@ -0,0 +1,73 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.impl.CardExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CardExportServiceImplTest {
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private CardExportServiceImpl cardExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cardExportService = new CardExportServiceImpl(cardRepository, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(cardExportService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(cardExportService, "clearInterval", 2);
+    }
+
+    @Test
+    void exportNdjson_writesOneLinePerCardAndClearsContext() throws Exception {
+        User owner = new User();
+        owner.setId(1L);
+        owner.setUsername("testuser");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(cardRepository.streamAllWithOwner()).thenReturn(
+                Stream.of(card(1L, owner), card(2L, owner), card(3L, owner)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = cardExportService.exportNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"id\":1,"));
+        assertTrue(lines[2].contains("\"maskedCardNumber\":\"**** **** **** 0003\""));
+        verify(entityManager, times(1)).clear();
+        assertTrue(closed.get());
+    }
+
+    private static Card card(Long id, User owner) {
+        Card card = new Card();
+        card.setId(id);
+        card.setLast4("000" + id);
+        card.setOwner(owner);
+        card.setExpiryDate(LocalDate.of(2030, 1, 1));
+        card.setStatus(Card.Status.ACTIVE);
+        card.setBalance(BigDecimal.TEN);
+        return card;
+    }
+}
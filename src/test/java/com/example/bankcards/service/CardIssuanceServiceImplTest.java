@@ -0,0 +1,262 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkIssuanceStatus;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardTransaction;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.BulkIssuanceRejectedException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.impl.CardIssuanceServiceImpl;
+import com.example.bankcards.util.CardHashUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CardIssuanceServiceImplTest {
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private CardIssuanceServiceImpl issuanceService;
+    private final List<Card> savedCards = new ArrayList<>();
+
+    @TempDir
+    private Path spoolDir;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        issuanceService = new CardIssuanceServiceImpl(cardRepository, cardTransactionRepository, userRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(), 2, 1, 0);
+        ReflectionTestUtils.setField(issuanceService, "chunkSize", 2);
+        ReflectionTestUtils.setField(issuanceService, "spoolDir", spoolDir.toString());
+        User owner = new User();
+        owner.setId(1L);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        AtomicLong ids = new AtomicLong();
+        when(cardRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Card> cards = inv.getArgument(0);
+            synchronized (savedCards) {
+                for (Card card : cards) {
+                    card.setId(ids.incrementAndGet());
+                    savedCards.add(card);
+                }
+            }
+            return cards;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuanceService.destroy();
+    }
+
+    @Test
+    void startIssuance_csvIssuesValidRowsAndReportsInvalid() throws Exception {
+        when(cardRepository.findExistingPanHashes(anyCollection()))
+                .thenReturn(List.of(CardHashUtil.hash("4444333322221111")));
+        String csv = "cardNumber,expiryDate,initialBalance\n"
+                + "1234567890123456,2030-01-31,100.00\n"
+                + "1234567890120000,2030-01-31,0\n"
+                + "12345,2030-01-31,10\n"
+                + "\n"
+                + "4444333322221111,2030-01-31,10\n"
+                + "5555666677778888,2030-01-31,5\n"
+                + "5555666677778888,2030-01-31,5\n";
+        BulkIssuanceStatus status = awaitFinished(issuanceService.startIssuance(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CardIssuanceService.Format.CSV, 1L));
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(6, status.getRowsRead());
+        assertEquals(3, status.getIssued());
+        assertEquals(3, status.getFailed());
+        assertEquals(3, savedCards.size());
+        assertTrue(status.getErrors().contains("Line 4: Card number must be 16 digits"));
+        assertTrue(status.getErrors().contains("Line 6: Card with this number already exists"));
+        assertTrue(status.getErrors().contains("Line 8: Duplicate card number in upload"));
+        Card issued = savedCards.stream().filter(card -> "3456".equals(card.getLast4())).findFirst().orElseThrow();
+        assertEquals(1L, issued.getOwner().getId());
+        assertEquals(CardHashUtil.hash("1234567890123456"), issued.getPanHash());
+        assertNotEquals("1234567890123456", issued.getCardNumber());
+        // Журнал получает запись только о ненулевом начальном балансе
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CardTransaction>> journal = ArgumentCaptor.forClass(List.class);
+        verify(cardTransactionRepository, atLeastOnce()).saveAll(journal.capture());
+        List<CardTransaction> entries = journal.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(2, entries.size());
+        CardTransaction entry = entries.stream()
+                .filter(transaction -> transaction.getCardId().equals(issued.getId())).findFirst().orElseThrow();
+        assertEquals(CardTransaction.Type.ADJUSTMENT, entry.getType());
+        assertEquals(0, new BigDecimal("100.00").compareTo(entry.getAmount()));
+        // Копия выгрузки удаляется после задания
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void startIssuance_spoolDoesNotContainPlainCardNumbers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(cardRepository.findExistingPanHashes(anyCollection())).thenAnswer(inv -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        String csv = "1234567890123456,2030-01-31,1\n";
+        BulkIssuanceStatus started = issuanceService.startIssuance(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CardIssuanceService.Format.CSV, 1L);
+        try (var files = Files.list(spoolDir)) {
+            List<Path> spools = files.toList();
+            assertEquals(1, spools.size());
+            assertFalse(Files.readString(spools.get(0), StandardCharsets.ISO_8859_1).contains("1234567890123456"));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(1, awaitFinished(started).getIssued());
+    }
+
+    @Test
+    void destroy_doesNotWaitForQueuedChunks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(cardRepository.findExistingPanHashes(anyCollection())).thenAnswer(inv -> {
+            if (!release.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("not released");
+            }
+            return List.of();
+        });
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            csv.append(String.format("12345678%08d,2030-01-31,1%n", i));
+        }
+        BulkIssuanceStatus started = issuanceService.startIssuance(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                CardIssuanceService.Format.CSV, 1L);
+        Thread.sleep(200);
+        issuanceService.destroy();
+        BulkIssuanceStatus status = awaitFinished(started, 3_000);
+        release.countDown();
+        assertEquals("FAILED", status.getStatus());
+    }
+
+    @Test
+    void startIssuance_rejectsJobWhenAllSlotsAreTaken() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(cardRepository.findExistingPanHashes(anyCollection())).thenAnswer(inv -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        byte[] csv = "1234567890123456,2030-01-31,1\n".getBytes(StandardCharsets.UTF_8);
+        BulkIssuanceStatus started = issuanceService.startIssuance(
+                new ByteArrayInputStream(csv), CardIssuanceService.Format.CSV, 1L);
+        try {
+            assertThrows(BulkIssuanceRejectedException.class, () -> issuanceService.startIssuance(
+                    new ByteArrayInputStream(csv), CardIssuanceService.Format.CSV, 1L));
+            // Отклоненная выгрузка не сохраняется
+            try (var files = Files.list(spoolDir)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            release.countDown();
+        }
+        awaitFinished(started);
+        // После завершения задания место освобождается
+        when(cardRepository.findExistingPanHashes(anyCollection())).thenReturn(List.of());
+        awaitFinished(issuanceService.startIssuance(
+                new ByteArrayInputStream("1234567890120000,2030-01-31,1\n".getBytes(StandardCharsets.UTF_8)),
+                CardIssuanceService.Format.CSV, 1L));
+    }
+
+    @Test
+    void purgeFinishedJobs_removesJobsOlderThanTtl() throws Exception {
+        when(cardRepository.findExistingPanHashes(anyCollection())).thenReturn(List.of());
+        BulkIssuanceStatus status = awaitFinished(issuanceService.startIssuance(
+                new ByteArrayInputStream("1234567890123456,2030-01-31,1\n".getBytes(StandardCharsets.UTF_8)),
+                CardIssuanceService.Format.CSV, 1L));
+        issuanceService.purgeFinishedJobs();
+        assertTrue(issuanceService.getStatus(status.getJobId()).isPresent());
+        ReflectionTestUtils.setField(issuanceService, "jobTtl", Duration.ZERO);
+        Thread.sleep(10);
+        issuanceService.purgeFinishedJobs();
+        assertTrue(issuanceService.getStatus(status.getJobId()).isEmpty());
+    }
+
+    @Test
+    void deleteLeftoverSpools_removesOnlyUploadSpools() throws Exception {
+        Path leftover = Files.createFile(spoolDir.resolve("card-bulk-123.upload"));
+        Path other = Files.createFile(spoolDir.resolve("other.txt"));
+        issuanceService.deleteLeftoverSpools();
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    void startIssuance_ndjsonChunkFailureRollsBackOnlyThatChunk() throws Exception {
+        when(cardRepository.findExistingPanHashes(anyCollection())).thenReturn(List.of());
+        doThrow(new IllegalStateException("duplicate key")).when(cardRepository).saveAll(
+                argThat((List<Card> cards) -> cards.stream().anyMatch(card -> "5555".equals(card.getLast4()))));
+        String ndjson = "{\"cardNumber\":\"1111222233334444\",\"expiryDate\":\"2030-01-31\",\"initialBalance\":1}\n"
+                + "{\"cardNumber\":\"1111222233335555\",\"expiryDate\":\"2030-01-31\",\"initialBalance\":1}\n"
+                + "{\"cardNumber\":\"1111222233336666\",\"expiryDate\":\"2030-01-31\",\"initialBalance\":1}\n"
+                + "not json\n";
+        BulkIssuanceStatus status = awaitFinished(issuanceService.startIssuance(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), CardIssuanceService.Format.NDJSON, 1L));
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(4, status.getRowsRead());
+        assertEquals(1, status.getIssued());
+        assertEquals(3, status.getFailed());
+        assertTrue(status.getErrors().stream().anyMatch(error -> error.contains("rolled back: duplicate key")));
+        assertTrue(status.getErrors().stream().anyMatch(error -> error.startsWith("Line 4: Malformed JSON")));
+    }
+
+    @Test
+    void startIssuance_unknownOwnerIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> issuanceService.startIssuance(
+                new ByteArrayInputStream(new byte[0]), CardIssuanceService.Format.CSV, 2L));
+        assertTrue(issuanceService.getStatus("unknown").isEmpty());
+    }
+
+    private BulkIssuanceStatus awaitFinished(BulkIssuanceStatus started) throws InterruptedException {
+        return awaitFinished(started, 10_000);
+    }
+
+    private BulkIssuanceStatus awaitFinished(BulkIssuanceStatus started, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        BulkIssuanceStatus status = started;
+        while (status.getFinishedAt() == null) {
+            assertTrue(System.currentTimeMillis() < deadline, "Issuance did not finish");
+            Thread.sleep(10);
+            status = issuanceService.getStatus(started.getJobId()).orElseThrow();
+        }
+        return status;
+    }
+}
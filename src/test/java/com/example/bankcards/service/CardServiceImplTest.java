@@ -1,30 +1,67 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.CardBalance;
 import com.example.bankcards.dto.CardDto;
+import com.example.bankcards.dto.CardTransactionDto;
 import com.example.bankcards.dto.CreateCardRequest;
+import com.example.bankcards.dto.CursorPage;
+import com.example.bankcards.dto.TransferRequest;
+import com.example.bankcards.dto.TransferResult;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardTransaction;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.InsufficientFundsException;
+import com.example.bankcards.exception.TransferConflictException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardTransactionRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.impl.CardServiceImpl;
 import com.example.bankcards.util.CardEncryptionUtil;
+import com.example.bankcards.util.CardHashUtil;
 import com.example.bankcards.util.CardMaskUtil;
+import com.example.bankcards.util.CursorUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,7 +70,15 @@ class CardServiceImplTest {
     @Mock
     private CardRepository cardRepository;
     @Mock
+    private CardTransactionRepository cardTransactionRepository;
+    @Mock
     private UserRepository userRepository;
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private CardBalanceCache balanceCache = new CardBalanceCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(1));
     @InjectMocks
     private CardServiceImpl cardService;
 
@@ -68,16 +113,38 @@ class CardServiceImplTest {
         assertEquals(BigDecimal.valueOf(500), dto.getBalance());
     }
 
+    @Test
+    void createCard_duplicateNumberRejected() {
+        CreateCardRequest req = new CreateCardRequest();
+        req.setCardNumber("1234567890123456");
+        req.setExpiryDate(LocalDate.now().plusYears(2));
+        req.setInitialBalance(BigDecimal.valueOf(500));
+        when(cardRepository.existsByPanHash(CardHashUtil.hash("1234567890123456"))).thenReturn(true);
+        assertThrows(IllegalArgumentException.class, () -> cardService.createCard(req, user));
+        verify(cardRepository, never()).save(any(Card.class));
+    }
+
     @Test
     void getCardById_success() {
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(cardRepository.findDtoById(1L)).thenReturn(Optional.of(dto(card)));
         Optional<CardDto> dtoOpt = cardService.getCardById(1L);
         assertTrue(dtoOpt.isPresent());
         assertEquals("testuser", dtoOpt.get().getOwnerUsername());
+        assertEquals("**** **** **** 3456", dtoOpt.get().getMaskedCardNumber());
+        assertEquals("ACTIVE", dtoOpt.get().getStatus());
+    }
+
+    @Test
+    void projectionConstructor_usesLast4WithoutDecrypting() {
+        CardDto dto = new CardDto(1L, "9876", "not-decryptable", "testuser",
+                LocalDate.now(), Card.Status.BLOCKED, BigDecimal.ONE);
+        assertEquals("**** **** **** 9876", dto.getMaskedCardNumber());
+        assertEquals("BLOCKED", dto.getStatus());
     }
 
     @Test
     void updateCard_success() {
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
         when(cardRepository.save(any(Card.class))).thenReturn(card);
         card.setBalance(BigDecimal.valueOf(2000));
         CardDto dto = cardService.updateCard(1L, card);
@@ -104,50 +171,404 @@ class CardServiceImplTest {
     @Test
     void listCards_success() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(cardRepository.findAllByOwner(user, pageable)).thenReturn(new PageImpl<>(Collections.singletonList(card)));
-        Page<CardDto> page = cardService.listCards(user, pageable);
+        when(cardRepository.findDtosByOwnerId(1L, pageable)).thenReturn(new PageImpl<>(Collections.singletonList(dto(card))));
+        Page<CardDto> page = cardService.listCards(1L, pageable);
         assertEquals(1, page.getTotalElements());
         assertEquals("testuser", page.getContent().get(0).getOwnerUsername());
     }
 
+    @Test
+    void listCardsByCursor_fetchesOneExtraRowForNextCursor() {
+        Card second = new Card();
+        second.setId(5L);
+        second.setCardNumber(card.getCardNumber());
+        second.setOwner(user);
+        second.setStatus(Card.Status.ACTIVE);
+        second.setBalance(BigDecimal.ZERO);
+        when(cardRepository.findDtosByOwnerIdAfter(1L, 0L, Limit.of(2)))
+                .thenReturn(List.of(dto(card), dto(second)));
+        CursorPage<CardDto> first = cardService.listCards(1L, null, 1, false);
+        assertEquals(1, first.getItems().size());
+        assertNull(first.getTotalElements());
+        assertNotNull(first.getNextCursor());
+
+        when(cardRepository.findDtosByOwnerIdAfter(1L, 1L, Limit.of(2)))
+                .thenReturn(List.of(dto(second)));
+        when(cardRepository.countByOwnerId(1L)).thenReturn(2L);
+        CursorPage<CardDto> last = cardService.listCards(1L, first.getNextCursor(), 1, true);
+        assertEquals(5L, last.getItems().get(0).getId());
+        assertNull(last.getNextCursor());
+        assertEquals(2L, last.getTotalElements());
+    }
+
+    @Test
+    void listCardsByCursor_invalidCursorRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cardService.listCards(1L, "not a cursor", 10, false));
+        assertThrows(IllegalArgumentException.class, () -> cardService.listCards(1L, null, 0, false));
+    }
+
+    @Test
+    void getBalance_ownerComparedById() {
+        User principalUser = new User();
+        principalUser.setId(1L);
+        principalUser.setUsername("testuser");
+        when(cardRepository.findBalanceById(1L)).thenReturn(Optional.of(new CardBalance(1L, BigDecimal.valueOf(1000))));
+        assertEquals(BigDecimal.valueOf(1000), cardService.getBalance(1L, principalUser));
+        principalUser.setId(2L);
+        assertThrows(IllegalArgumentException.class, () -> cardService.getBalance(1L, principalUser));
+    }
+
     @Test
     void transferBetweenCards_success() {
-        Card from = new Card();
-        from.setId(1L);
-        from.setOwner(user);
-        from.setBalance(BigDecimal.valueOf(1000));
-        Card to = new Card();
-        to.setId(2L);
-        to.setOwner(user);
-        to.setBalance(BigDecimal.valueOf(100));
-        when(cardRepository.findById(1L)).thenReturn(Optional.of(from));
-        when(cardRepository.findById(2L)).thenReturn(Optional.of(to));
+        Card from = activeCard(1L, 1000);
+        Card to = activeCard(2L, 100);
+        when(cardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(from));
+        when(cardRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
         cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user);
         assertEquals(BigDecimal.valueOf(800), from.getBalance());
         assertEquals(BigDecimal.valueOf(300), to.getBalance());
+        List<CardTransaction> journal = captureJournal();
+        assertEquals(2, journal.size());
+        assertEquals(1L, journal.get(0).getCardId());
+        assertEquals(CardTransaction.Type.TRANSFER_DEBIT, journal.get(0).getType());
+        assertEquals(BigDecimal.valueOf(-200), journal.get(0).getAmount());
+        assertEquals(2L, journal.get(1).getCardId());
+        assertEquals(BigDecimal.valueOf(200), journal.get(1).getAmount());
     }
 
     @Test
     void transferBetweenCards_insufficientFunds() {
-        Card from = new Card();
-        from.setId(1L);
-        from.setOwner(user);
-        from.setBalance(BigDecimal.valueOf(100));
-        Card to = new Card();
-        to.setId(2L);
-        to.setOwner(user);
-        to.setBalance(BigDecimal.valueOf(100));
+        Card from = activeCard(1L, 100);
+        Card to = activeCard(2L, 100);
+        when(cardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(from));
+        when(cardRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
+        assertThrows(InsufficientFundsException.class, () ->
+            cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user)
+        );
+    }
+
+    @Test
+    void transferBetweenCards_rejectsNonPositiveAmount() {
+        assertThrows(IllegalArgumentException.class, () ->
+            cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(-50), user)
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            cardService.transferBetweenCards(1L, 2L, BigDecimal.ZERO, user)
+        );
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void transferBetweenCards_locksCardsInAscendingIdOrder() {
+        Card from = activeCard(2L, 1000);
+        Card to = activeCard(1L, 100);
+        when(cardRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(from));
+        when(cardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(to));
+        cardService.transferBetweenCards(2L, 1L, BigDecimal.valueOf(200), user);
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).findByIdForUpdate(1L);
+        inOrder.verify(cardRepository).findByIdForUpdate(2L);
+        verify(cardRepository, never()).findById(anyLong());
+        assertEquals(BigDecimal.valueOf(800), from.getBalance());
+        assertEquals(BigDecimal.valueOf(300), to.getBalance());
+    }
+
+    @Test
+    void transferBetweenCards_optimisticRetriesOnConflict() {
+        ReflectionTestUtils.setField(cardService, "transferStrategy", TransferStrategy.OPTIMISTIC);
+        ReflectionTestUtils.setField(cardService, "optimisticBackoffMs", 0L);
+        Card from = activeCard(1L, 1000);
+        Card to = activeCard(2L, 100);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(from));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(to));
+        when(cardRepository.save(from))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Card.class, 1L))
+                .thenReturn(from);
+        cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user);
+        verify(cardRepository, times(2)).findById(1L);
+        verify(cardRepository, never()).findByIdForUpdate(anyLong());
+        assertEquals(1.0, meterRegistry.counter("bank.transfer.optimistic.retries").count());
+    }
+
+    @Test
+    void transferBetweenCards_optimisticInCallerTransactionDoesNotRetry() {
+        ReflectionTestUtils.setField(cardService, "transferStrategy", TransferStrategy.OPTIMISTIC);
+        Card from = activeCard(1L, 1000);
+        Card to = activeCard(2L, 100);
         when(cardRepository.findById(1L)).thenReturn(Optional.of(from));
         when(cardRepository.findById(2L)).thenReturn(Optional.of(to));
+        doThrow(new ObjectOptimisticLockingFailureException(Card.class, 1L)).when(cardRepository).flush();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(TransferConflictException.class, () ->
+                cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user)
+            );
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(cardRepository, times(1)).findById(1L);
+        assertEquals(0.0, meterRegistry.counter("bank.transfer.optimistic.retries").count());
+    }
+
+    @Test
+    void transferBetweenCards_optimisticGivesUpAfterMaxAttempts() {
+        ReflectionTestUtils.setField(cardService, "transferStrategy", TransferStrategy.OPTIMISTIC);
+        ReflectionTestUtils.setField(cardService, "optimisticBackoffMs", 0L);
+        ReflectionTestUtils.setField(cardService, "optimisticMaxAttempts", 3);
+        Card from = activeCard(1L, 1000);
+        Card to = activeCard(2L, 100);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(from));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(to));
+        when(cardRepository.save(from)).thenThrow(new ObjectOptimisticLockingFailureException(Card.class, 1L));
+        assertThrows(TransferConflictException.class, () ->
+            cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user)
+        );
+        assertEquals(3.0, meterRegistry.counter("bank.transfer.optimistic.conflicts").count());
+    }
+
+    @Test
+    void transferBetweenCards_atomicUsesConditionalUpdates() {
+        ReflectionTestUtils.setField(cardService, "transferStrategy", TransferStrategy.ATOMIC);
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(200), LocalDate.now())).thenReturn(1);
+        when(cardRepository.credit(2L, 1L, BigDecimal.valueOf(200), LocalDate.now())).thenReturn(1);
+        cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user);
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).debit(1L, 1L, BigDecimal.valueOf(200), LocalDate.now());
+        inOrder.verify(cardRepository).credit(2L, 1L, BigDecimal.valueOf(200), LocalDate.now());
+        verify(cardRepository, never()).findById(anyLong());
+        verify(cardRepository, never()).save(any(Card.class));
+    }
+
+    @Test
+    void transferBetweenCards_atomicInsufficientFunds() {
+        ReflectionTestUtils.setField(cardService, "transferStrategy", TransferStrategy.ATOMIC);
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(5000), LocalDate.now())).thenReturn(0);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
         assertThrows(InsufficientFundsException.class, () ->
+            cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(5000), user)
+        );
+        verify(cardRepository, never()).credit(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void transferBetweenCards_expiredCardRejectedBeforeSweep() {
+        Card from = activeCard(1L, 1000);
+        Card to = activeCard(2L, 100);
+        // Срок истек, но обход CardExpiryJob еще не перевел карту в EXPIRED
+        to.setExpiryDate(LocalDate.now().minusDays(1));
+        when(cardRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(from));
+        when(cardRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(to));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
             cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user)
         );
+        assertEquals("Card is expired", e.getMessage());
+        assertEquals(BigDecimal.valueOf(1000), from.getBalance());
+        verify(cardTransactionRepository, never()).saveAll(any());
     }
 
     @Test
-    void getBalance_success() {
+    void transferBetweenCards_atomicReportsExpiredCard() {
+        ReflectionTestUtils.setField(cardService, "transferStrategy", TransferStrategy.ATOMIC);
+        card.setExpiryDate(LocalDate.now().minusDays(1));
+        when(cardRepository.debit(1L, 1L, BigDecimal.valueOf(200), LocalDate.now())).thenReturn(0);
         when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            cardService.transferBetweenCards(1L, 2L, BigDecimal.valueOf(200), user)
+        );
+        assertEquals("Card is expired", e.getMessage());
+    }
+
+    @Test
+    void transferBatch_appliesTransfersInOrderAndReportsFailures() {
+        Card from = activeCard(1L, 300);
+        Card to = activeCard(2L, 100);
+        Card blocked = activeCard(4L, 100);
+        blocked.setStatus(Card.Status.BLOCKED);
+        when(cardRepository.findAllByIdInForUpdate(any())).thenReturn(List.of(from, to, blocked));
+        List<TransferResult> results = cardService.transferBatch(List.of(
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(200)),
+                new TransferRequest(1L, 2L, BigDecimal.valueOf(200)),
+                new TransferRequest(2L, 3L, BigDecimal.valueOf(10)),
+                new TransferRequest(2L, 4L, BigDecimal.valueOf(10))
+        ), user);
+        assertEquals(4, results.size());
+        assertEquals("OK", results.get(0).getStatus());
+        assertEquals("FAILED", results.get(1).getStatus());
+        assertEquals("Insufficient funds", results.get(1).getError());
+        assertEquals("Card not found", results.get(2).getError());
+        assertEquals("Card is not active", results.get(3).getError());
+        assertEquals(BigDecimal.valueOf(100), from.getBalance());
+        assertEquals(BigDecimal.valueOf(300), to.getBalance());
+        verify(cardRepository, times(1)).findAllByIdInForUpdate(any());
+        // Записи журнала только для выполненного перевода, одним вызовом saveAll
+        assertEquals(2, captureJournal().size());
+    }
+
+    @Test
+    void listTransactions_pagesFromNewestAndChecksOwner() {
+        when(cardRepository.existsByIdAndOwnerId(1L, 1L)).thenReturn(true);
+        when(cardTransactionRepository.findDtosByCardIdBefore(eq(1L), eq(Long.MAX_VALUE), any(Limit.class)))
+                .thenReturn(List.of(
+                        new CardTransactionDto(30L, 2L, CardTransaction.Type.TRANSFER_CREDIT, BigDecimal.TEN, Instant.now()),
+                        new CardTransactionDto(20L, 2L, CardTransaction.Type.TRANSFER_DEBIT, BigDecimal.ONE.negate(), Instant.now()),
+                        new CardTransactionDto(10L, null, CardTransaction.Type.ADJUSTMENT, BigDecimal.TEN, Instant.now())));
+        CursorPage<CardTransactionDto> page = cardService.listTransactions(1L, user, null, 2);
+        assertEquals(2, page.getItems().size());
+        assertEquals(20L, CursorUtil.decode(page.getNextCursor()));
+        verify(cardTransactionRepository).findDtosByCardIdBefore(1L, Long.MAX_VALUE, Limit.of(3));
+
+        assertThrows(IllegalArgumentException.class, () -> cardService.listTransactions(2L, user, null, 2));
+    }
+
+    @Test
+    void getBalance_success() {
+        when(cardRepository.findBalanceById(1L)).thenReturn(Optional.of(new CardBalance(1L, card.getBalance())));
         BigDecimal balance = cardService.getBalance(1L, user);
         assertEquals(card.getBalance(), balance);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getBalance_servedFromCacheUntilCardChanges() {
+        when(cardRepository.findBalanceById(1L))
+                .thenReturn(Optional.of(new CardBalance(1L, BigDecimal.valueOf(1000))))
+                .thenReturn(Optional.of(new CardBalance(1L, BigDecimal.valueOf(900))));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+        when(cardRepository.save(any(Card.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        assertEquals(BigDecimal.valueOf(1000), cardService.getBalance(1L, user));
+        assertEquals(BigDecimal.valueOf(1000), cardService.getBalance(1L, user));
+        verify(cardRepository, times(1)).findBalanceById(1L);
+
+        cardService.blockCard(1L);
+        assertEquals(BigDecimal.valueOf(900), cardService.getBalance(1L, user));
+        verify(cardRepository, times(2)).findBalanceById(1L);
+    }
+
+    @Test
+    void getBalance_missingCardIsNotCached() {
+        when(cardRepository.findBalanceById(5L)).thenReturn(Optional.empty());
+        assertThrows(NoSuchElementException.class, () -> cardService.getBalance(5L, user));
+        assertThrows(NoSuchElementException.class, () -> cardService.getBalance(5L, user));
+        verify(cardRepository, times(2)).findBalanceById(5L);
+    }
+
+    @Test
+    void getBalance_cacheMatchesDatabaseAfterConcurrentTransfers() throws Exception {
+        Map<Long, BigDecimal> balances = new ConcurrentHashMap<>();
+        for (long id = 1; id <= 4; id++) {
+            balances.put(id, BigDecimal.valueOf(1000));
+        }
+        when(cardRepository.findBalanceById(anyLong()))
+                .thenAnswer(inv -> Optional.of(new CardBalance(1L, balances.get(inv.<Long>getArgument(0)))));
+        when(cardRepository.debit(anyLong(), eq(1L), any(), any())).thenAnswer(inv -> {
+            BigDecimal amount = inv.getArgument(2);
+            balances.compute(inv.getArgument(0), (id, balance) -> balance.subtract(amount));
+            return 1;
+        });
+        when(cardRepository.credit(anyLong(), eq(1L), any(), any())).thenAnswer(inv -> {
+            BigDecimal amount = inv.getArgument(2);
+            balances.compute(inv.getArgument(0), (id, balance) -> balance.add(amount));
+            return 1;
+        });
+        // Менеджер транзакций с синхронизацией: сброс кэша выполняется после "коммита"
+        CardServiceImpl service = new CardServiceImpl(cardRepository, cardTransactionRepository, userRepository,
+                new TransactionTemplate(new SynchronizingTransactionManager()), new SimpleMeterRegistry(),
+                new CardBalanceCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(1)));
+        ReflectionTestUtils.setField(service, "transferStrategy", TransferStrategy.ATOMIC);
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        AtomicBoolean transfersDone = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 4; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 200; i++) {
+                        long from = random.nextLong(1, 5);
+                        long to = from % 4 + 1;
+                        service.transferBetweenCards(from, to, BigDecimal.ONE, user);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (!transfersDone.get()) {
+                        service.getBalance(ThreadLocalRandom.current().nextLong(1, 5), user);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            transfersDone.set(true);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (long id = 1; id <= 4; id++) {
+            assertEquals(balances.get(id), service.getBalance(id, user), "card " + id);
+            total = total.add(service.getBalance(id, user));
+        }
+        assertEquals(BigDecimal.valueOf(4000), total);
+    }
+
+    private Card activeCard(Long id, long balance) {
+        Card activeCard = new Card();
+        activeCard.setId(id);
+        activeCard.setOwner(user);
+        activeCard.setExpiryDate(LocalDate.now().plusYears(2));
+        activeCard.setStatus(Card.Status.ACTIVE);
+        activeCard.setBalance(BigDecimal.valueOf(balance));
+        return activeCard;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CardTransaction> captureJournal() {
+        ArgumentCaptor<Iterable<CardTransaction>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(cardTransactionRepository).saveAll(captor.capture());
+        List<CardTransaction> journal = new ArrayList<>();
+        captor.getValue().forEach(journal::add);
+        return journal;
+    }
+
+    /**
+     * Менеджер транзакций без ресурса, который вызывает afterCommit-синхронизации при коммите.
+     */
+    private static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    /**
+     * DTO в том виде, в каком его возвращают запросы-проекции CardRepository.
+     */
+    private static CardDto dto(Card card) {
+        return new CardDto(card.getId(), card.getLast4(), card.getCardNumber(), card.getOwner().getUsername(),
+                card.getExpiryDate(), card.getStatus(), card.getBalance());
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.IdempotentResponse;
+import com.example.bankcards.entity.IdempotencyKey;
+import com.example.bankcards.exception.IdempotencyConflictException;
+import com.example.bankcards.exception.IdempotencyKeyMismatchException;
+import com.example.bankcards.repository.IdempotencyKeyRepository;
+import com.example.bankcards.service.impl.IdempotencyServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImplTest {
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private static final String FINGERPRINT = "1:2:100";
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(),
+                Duration.ofHours(24), Duration.ofMinutes(1), Duration.ofMinutes(10), 1000);
+        when(idempotencyKeyRepository.complete(any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void execute_duplicateIsServedFromCacheWithoutTransaction() {
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-1"), eq("testuser"), any(), any(), any())).thenReturn(1);
+        AtomicInteger executions = new AtomicInteger();
+        IdempotentResponse first = idempotencyService.execute("testuser", "key-1", FINGERPRINT, () -> {
+            executions.incrementAndGet();
+            return 200;
+        });
+        clearInvocations(idempotencyKeyRepository, transactionManager);
+        IdempotentResponse second = idempotencyService.execute("testuser", "key-1", FINGERPRINT, () -> {
+            executions.incrementAndGet();
+            return 200;
+        });
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals(200, second.getStatus());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyKeyRepository, transactionManager);
+    }
+
+    @Test
+    void execute_duplicateOfStoredResponseIsReplayed() {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setKey("8:testuser:key-2");
+        stored.setStatus(IdempotencyKey.Status.COMPLETED);
+        stored.setResponseStatus(200);
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-2"), eq("testuser"), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("8:testuser:key-2")).thenReturn(Optional.of(stored));
+        IdempotentResponse response = idempotencyService.execute("testuser", "key-2", FINGERPRINT, () -> {
+            fail("Duplicate request must not be executed");
+            return 500;
+        });
+        assertTrue(response.isReplayed());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void execute_inProgressDuplicateIsRejected() {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setKey("8:testuser:key-3");
+        stored.setStatus(IdempotencyKey.Status.IN_PROGRESS);
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-3"), eq("testuser"), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("8:testuser:key-3")).thenReturn(Optional.of(stored));
+        assertThrows(IdempotencyConflictException.class, () ->
+            idempotencyService.execute("testuser", "key-3", FINGERPRINT, () -> 200)
+        );
+    }
+
+    @Test
+    void execute_failedActionReleasesKey() {
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-4"), eq("testuser"), any(), any(), any())).thenReturn(1);
+        assertThrows(IllegalArgumentException.class, () ->
+            idempotencyService.execute("testuser", "key-4", FINGERPRINT, () -> {
+                throw new IllegalArgumentException("User does not own both cards");
+            })
+        );
+        verify(idempotencyKeyRepository).release(eq("8:testuser:key-4"), any());
+        verify(idempotencyKeyRepository, never()).complete(any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_failedCompletionRollsBackActionSoRetryDebitsOnce() {
+        // Списание считается выполненным, только если его транзакция зафиксирована
+        AtomicInteger pendingDebits = new AtomicInteger();
+        AtomicInteger committedDebits = new AtomicInteger();
+        doAnswer(inv -> committedDebits.addAndGet(pendingDebits.getAndSet(0))).when(transactionManager).commit(any());
+        doAnswer(inv -> pendingDebits.getAndSet(0)).when(transactionManager).rollback(any());
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-9"), eq("testuser"), any(), any(), any())).thenReturn(1);
+        when(idempotencyKeyRepository.complete(eq("8:testuser:key-9"), any(), any(), any()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(1);
+        assertThrows(IllegalStateException.class, () ->
+            idempotencyService.execute("testuser", "key-9", FINGERPRINT, () -> {
+                pendingDebits.incrementAndGet();
+                return 200;
+            })
+        );
+        assertEquals(0, committedDebits.get());
+        IdempotentResponse retry = idempotencyService.execute("testuser", "key-9", FINGERPRINT, () -> {
+            pendingDebits.incrementAndGet();
+            return 200;
+        });
+        assertFalse(retry.isReplayed());
+        assertEquals(1, committedDebits.get());
+    }
+
+    @Test
+    void execute_keyTakenOverAfterLeaseRollsBackSlowRequest() {
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-10"), eq("testuser"), any(), any(), any())).thenReturn(1);
+        when(idempotencyKeyRepository.complete(eq("8:testuser:key-10"), any(), any(), any())).thenReturn(0);
+        assertThrows(IdempotencyConflictException.class, () ->
+            idempotencyService.execute("testuser", "key-10", FINGERPRINT, () -> 200)
+        );
+        ArgumentCaptor<Instant> claimedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(idempotencyKeyRepository).claim(eq("8:testuser:key-10"), eq("testuser"), any(), claimedAt.capture(), any());
+        verify(transactionManager).rollback(any());
+        // Освобождается только собственная регистрация ключа, а не перехватившая его
+        verify(idempotencyKeyRepository).release("8:testuser:key-10", claimedAt.getValue());
+    }
+
+    @Test
+    void execute_scopedKeysOfDifferentUsersDoNotCollide() {
+        when(idempotencyKeyRepository.claim(any(), any(), any(), any(), any())).thenReturn(1);
+        idempotencyService.execute("a", "b:x", FINGERPRINT, () -> 200);
+        idempotencyService.execute("a:b", "x", FINGERPRINT, () -> 200);
+        verify(idempotencyKeyRepository).claim(eq("1:a:b:x"), eq("a"), any(), any(), any());
+        verify(idempotencyKeyRepository).claim(eq("3:a:b:x"), eq("a:b"), any(), any(), any());
+    }
+
+    @Test
+    void execute_sameKeyWithDifferentParametersIsRejected() {
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-5"), eq("testuser"), any(), any(), any())).thenReturn(1);
+        AtomicInteger executions = new AtomicInteger();
+        idempotencyService.execute("testuser", "key-5", FINGERPRINT, executions::incrementAndGet);
+        // Повтор из кэша
+        assertThrows(IdempotencyKeyMismatchException.class, () ->
+            idempotencyService.execute("testuser", "key-5", "1:2:999", executions::incrementAndGet)
+        );
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_storedKeyWithDifferentParametersIsRejected() {
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-6"), eq("testuser"), requestHash.capture(), any(), any()))
+                .thenReturn(1);
+        idempotencyService.execute("testuser", "key-6", FINGERPRINT, () -> 200);
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setKey("8:testuser:key-6");
+        stored.setStatus(IdempotencyKey.Status.COMPLETED);
+        stored.setResponseStatus(200);
+        stored.setRequestHash(requestHash.getValue());
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-7"), eq("testuser"), any(), any(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("8:testuser:key-7")).thenReturn(Optional.of(stored));
+        assertThrows(IdempotencyKeyMismatchException.class, () ->
+            idempotencyService.execute("testuser", "key-7", "1:2:999", () -> 200)
+        );
+        assertTrue(idempotencyService.execute("testuser", "key-7", FINGERPRINT, () -> 500).isReplayed());
+    }
+
+    @Test
+    void execute_claimTakesOverInProgressKeysOlderThanLease() {
+        when(idempotencyKeyRepository.claim(eq("8:testuser:key-8"), eq("testuser"), any(), any(), any())).thenReturn(1);
+        idempotencyService.execute("testuser", "key-8", FINGERPRINT, () -> 200);
+        ArgumentCaptor<Instant> createdAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> leaseExpiredBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(idempotencyKeyRepository).claim(eq("8:testuser:key-8"), eq("testuser"), any(),
+                createdAt.capture(), leaseExpiredBefore.capture());
+        assertEquals(Duration.ofMinutes(1), Duration.between(leaseExpiredBefore.getValue(), createdAt.getValue()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardBalance;
+import com.example.bankcards.repository.ReactiveCardRepository;
+import com.example.bankcards.service.impl.ReactiveCardServiceImpl;
+import com.example.bankcards.util.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveCardServiceImplTest {
+    @Mock
+    private ReactiveCardRepository cardRepository;
+
+    private ReactiveCardServiceImpl cardService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cardService = new ReactiveCardServiceImpl(cardRepository);
+    }
+
+    @Test
+    void getBalance_checksOwnerById() {
+        when(cardRepository.findBalanceById(1L)).thenReturn(Mono.just(new CardBalance(1L, BigDecimal.valueOf(1000))));
+        assertEquals(BigDecimal.valueOf(1000), cardService.getBalance(1L, 1L).block());
+        assertThrows(IllegalArgumentException.class, () -> cardService.getBalance(1L, 2L).block());
+    }
+
+    @Test
+    void getBalance_missingCardFails() {
+        when(cardRepository.findBalanceById(5L)).thenReturn(Mono.empty());
+        assertThrows(NoSuchElementException.class, () -> cardService.getBalance(5L, 1L).block());
+    }
+
+    @Test
+    void listCards_passesCursorAndLimit() {
+        when(cardRepository.findDtosByOwnerIdAfter(anyLong(), anyLong(), anyLong())).thenReturn(Flux.empty());
+        cardService.listCards(1L, CursorUtil.encode(42L), 10).blockLast();
+        cardService.listCards(1L, null, null).blockLast();
+        verify(cardRepository).findDtosByOwnerIdAfter(1L, 42L, 10L);
+        verify(cardRepository).findDtosByOwnerIdAfter(1L, 0L, Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> cardService.listCards(1L, null, 0));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bankcards.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardEncryptionUtilTest {
+    @Test
+    void encrypt_usesRandomIvAndRoundTrips() {
+        String first = CardEncryptionUtil.encrypt("1234567890123456");
+        String second = CardEncryptionUtil.encrypt("1234567890123456");
+        assertTrue(first.startsWith("v2:"));
+        assertNotEquals(first, second);
+        assertEquals("1234567890123456", CardEncryptionUtil.decrypt(first));
+        assertEquals("1234567890123456", CardEncryptionUtil.decrypt(second));
+    }
+
+    @Test
+    void decrypt_readsLegacyEcbValues() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE,
+                new SecretKeySpec("MySecretKey12345".getBytes(StandardCharsets.US_ASCII), "AES"));
+        String legacy = Base64.getEncoder().encodeToString(
+                cipher.doFinal("1111222233334444".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("1111222233334444", CardEncryptionUtil.decrypt(legacy));
+    }
+
+    @Test
+    void decryptToBuffer_masksFromBufferAndClearsOnClose() {
+        String encrypted = CardEncryptionUtil.encrypt("4000123412341234");
+        PanBuffer pan = CardEncryptionUtil.decryptToBuffer(encrypted);
+        try (pan) {
+            assertEquals(16, pan.length());
+            assertEquals("**** **** **** 1234", pan.masked());
+            assertEquals("1234", pan.last4());
+            assertEquals(CardHashUtil.hash("4000123412341234"), CardHashUtil.hash(pan));
+        }
+        assertEquals(0, pan.length());
+        for (byte b : pan.digits) {
+            assertEquals(0, b);
+        }
+    }
+
+    @Test
+    void panBuffer_doubleCloseReturnsBufferToPoolOnce() {
+        PanBuffer pan = PanBuffer.acquire();
+        pan.close();
+        pan.close();
+        // Больше буферов, чем пул хранит свободными: дубликат в пуле выдался бы дважды
+        int count = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        Set<PanBuffer> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < count; i++) {
+            assertTrue(acquired.add(PanBuffer.acquire()));
+        }
+        acquired.forEach(PanBuffer::close);
+    }
+
+    @Test
+    void decryptToBuffer_readsLegacyValuesOfAnyLength() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES");
+        cipher.init(Cipher.ENCRYPT_MODE,
+                new SecretKeySpec("MySecretKey12345".getBytes(StandardCharsets.US_ASCII), "AES"));
+        for (String number : new String[] {"12", "123456789012345", "1234567890123456789", "1234567890123456789012345678901234567890"}) {
+            String legacy = Base64.getEncoder().encodeToString(cipher.doFinal(number.getBytes(StandardCharsets.US_ASCII)));
+            assertEquals(number, CardEncryptionUtil.decrypt(legacy));
+        }
+    }
+
+    @Test
+    void decrypt_rejectsInvalidBase64() {
+        assertThrows(RuntimeException.class, () -> CardEncryptionUtil.decrypt("v2:not*base64"));
+    }
+
+    @Test
+    void decrypt_rejectsTamperedCiphertext() {
+        String encrypted = CardEncryptionUtil.encrypt("1234567890123456");
+        byte[] payload = Base64.getDecoder().decode(encrypted.substring("v2:".length()));
+        payload[payload.length - 1] ^= 1;
+        String tampered = "v2:" + Base64.getEncoder().encodeToString(payload);
+        assertThrows(RuntimeException.class, () -> CardEncryptionUtil.decrypt(tampered));
+    }
+}